@@ -0,0 +1,22 @@
+package com.tricol.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Format binaire CBOR (application/cbor) pour les intégrations volumineuses (synchro ERP).
+// Négocié par en-têtes sur tous les endpoints : Accept: application/cbor pour les listes et exports,
+// Content-Type: application/cbor pour les envois en masse. Le schéma est celui des DTO, exactement
+// comme en JSON (mêmes noms de champs, mêmes annotations Jackson, même doc OpenAPI).
+@Configuration
+public class FormatBinaireConfig {
+
+    // Construit à partir du builder de Spring Boot pour partager la configuration JSON
+    // (modules java.time, dates ISO, spring.jackson.*) ; remplace le convertisseur CBOR par défaut de Spring MVC
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,29 @@
+package com.tricol.config;
+
+import com.tricol.invalidation.TransportInvalidation;
+import com.tricol.invalidation.TransportMemoire;
+import com.tricol.invalidation.TransportPostgres;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+// Transport du bus d'invalidation (utilisé seulement si tricol.invalidation.actif=true) :
+//   tricol.invalidation.transport=postgres   LISTEN/NOTIFY, instances partageant la même base primaire
+//   tricol.invalidation.transport=memoire    dans la JVM (tests, instance unique)
+@Configuration
+public class InvalidationConfig {
+
+    @Bean
+    public TransportInvalidation transportInvalidation(@Value("${tricol.invalidation.transport:postgres}") String transport,
+                                                       DataSource dataSource,
+                                                       JdbcTemplate jdbcTemplate) {
+        return switch (transport) {
+            case "postgres" -> new TransportPostgres(dataSource, jdbcTemplate);
+            case "memoire" -> new TransportMemoire();
+            default -> throw new IllegalArgumentException("Transport d'invalidation inconnu : " + transport);
+        };
+    }
+}
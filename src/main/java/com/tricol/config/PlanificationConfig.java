@@ -0,0 +1,12 @@
+package com.tricol.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tâches planifiées (archivage des commandes closes, vidages du moteur de stock et du bus d'invalidation) ;
+// chacune garde son propre interrupteur tricol.*.actif. Le planificateur n'a qu'un fil : une tâche longue
+// (archivage) part en arrière-plan pour ne pas retarder les vidages courts.
+@Configuration
+@EnableScheduling
+public class PlanificationConfig {
+}
@@ -0,0 +1,84 @@
+package com.tricol.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Aiguille chaque connexion vers le primaire ou un réplica au moment où elle est réellement ouverte
+// (d'où le LazyConnectionDataSourceProxy autour : le caractère read-only de la transaction n'est connu
+// qu'après son démarrage).
+// Va sur un réplica : une transaction read-only ouverte par un service (nom de transaction préfixé par
+// "prefixeTransactions"). Les transactions read-only implicites des repositories Spring Data, appelées
+// au milieu d'un cas d'usage qui écrit, restent sur le primaire.
+// Garde de fraîcheur : pendant "fenetre" après la dernière écriture validée, les lectures restent aussi
+// sur le primaire, pour qu'un client relisant ce qu'il vient d'écrire ne voie pas un réplica en retard.
+public class RoutageDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMAIRE = "primaire";
+    static final String REPLICA = "replica-";
+
+    private final int nbReplicas;
+    private final String prefixeTransactions;
+    private final long fenetreNanos;
+    private final AtomicInteger suivant = new AtomicInteger();
+    private volatile long derniereEcriture;
+
+    public RoutageDataSource(int nbReplicas, String prefixeTransactions, long fenetreMs) {
+        this.nbReplicas = nbReplicas;
+        this.prefixeTransactions = prefixeTransactions;
+        this.fenetreNanos = TimeUnit.MILLISECONDS.toNanos(fenetreMs);
+        this.derniereEcriture = System.nanoTime() - fenetreNanos - 1;
+    }
+
+    static String cleReplica(int index) {
+        return REPLICA + index;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // seule une vraie transaction en écriture ouvre la fenêtre : les connexions hors transaction
+            // (sonde du proxy au démarrage, health checks, Liquibase, JdbcTemplate isolé) vont au primaire
+            // sans retenir les lectures suivantes
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                noterEcriture();
+            }
+            return PRIMAIRE;
+        }
+        String transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (nbReplicas == 0 || transaction == null || !transaction.startsWith(prefixeTransactions)
+                || System.nanoTime() - derniereEcriture <= fenetreNanos) {
+            return PRIMAIRE;
+        }
+        // round-robin entre les réplicas
+        return cleReplica(Math.floorMod(suivant.getAndIncrement(), nbReplicas));
+    }
+
+    // les pools des réplicas sont créés ici, le primaire est un bean fermé par Spring
+    @Override
+    public void close() throws Exception {
+        for (Map.Entry<Object, DataSource> cible : getResolvedDataSources().entrySet()) {
+            if (!PRIMAIRE.equals(cible.getKey()) && cible.getValue() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+
+    // La fenêtre part de la fin de la transaction (c'est là que l'écriture devient visible pour les réplicas)
+    private void noterEcriture() {
+        derniereEcriture = System.nanoTime();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    derniereEcriture = System.nanoTime();
+                }
+            });
+        }
+    }
+}
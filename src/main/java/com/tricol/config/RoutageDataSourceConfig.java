@@ -0,0 +1,72 @@
+package com.tricol.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Actif uniquement si des réplicas sont déclarés, par exemple :
+//   tricol.replicas.urls=jdbc:postgresql://replica1:5432/tricol_v2,jdbc:postgresql://replica2:5432/tricol_v2
+//   tricol.replicas.fenetre-fraicheur-ms=1000   (lecture sur le primaire après une écriture)
+// Sans cette propriété, la DataSource auto-configurée par Spring Boot reste inchangée.
+@Configuration
+@ConditionalOnProperty(name = "tricol.replicas.urls")
+public class RoutageDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaireDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public RoutageDataSource routageDataSource(@Qualifier("primaireDataSource") DataSource primaireDataSource,
+                                               DataSourceProperties properties,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${tricol.replicas.urls}") List<String> urls,
+                                               @Value("${tricol.replicas.username:${spring.datasource.username:}}") String username,
+                                               @Value("${tricol.replicas.password:${spring.datasource.password:}}") String password,
+                                               @Value("${tricol.replicas.taille-pool:${spring.datasource.hikari.maximum-pool-size:10}}") int taillePool,
+                                               @Value("${tricol.replicas.fenetre-fraicheur-ms:1000}") long fenetreMs,
+                                               @Value("${tricol.replicas.prefixe-transactions:com.tricol.service.}") String prefixe) {
+        Map<Object, Object> cibles = new HashMap<>();
+        cibles.put(RoutageDataSource.PRIMAIRE, primaireDataSource);
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("tricol-replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(taillePool);
+            replica.setReadOnly(true);
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            cibles.put(RoutageDataSource.cleReplica(i), replica);
+        }
+
+        RoutageDataSource routage = new RoutageDataSource(urls.size(), prefixe, fenetreMs);
+        routage.setTargetDataSources(cibles);
+        routage.setDefaultTargetDataSource(primaireDataSource);
+        return routage;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutageDataSource routageDataSource) {
+        return new LazyConnectionDataSourceProxy(routageDataSource);
+    }
+}
@@ -0,0 +1,46 @@
+package com.tricol.controller;
+
+import com.tricol.dto.ArchivageRapportDTO;
+import com.tricol.dto.CommandeArchiveDTO;
+import com.tricol.service.ArchivageService;
+import com.tricol.service.ArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/archives")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+    private final ArchivageService archivageService;
+
+    // GET /api/archives/commandes?fournisseurId=... : commandes closes sorties des tables actives
+    @GetMapping("/commandes")
+    public ResponseEntity<Page<CommandeArchiveDTO>> getCommandes(@RequestParam(required = false) Integer fournisseurId,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "10") int nbrEelement) {
+        return ResponseEntity.ok(archiveService.getCommandes(fournisseurId, page, nbrEelement));
+    }
+
+    // GET /api/archives/commandes/{id} : commande archivée avec ses lignes et ses mouvements
+    @GetMapping("/commandes/{id}")
+    public ResponseEntity<CommandeArchiveDTO> getCommande(@PathVariable int id) {
+        return ResponseEntity.ok(archiveService.getCommande(id));
+    }
+
+    // POST /api/archives/archivage : lance un passage d'archivage sans attendre la planification
+    @PostMapping("/archivage")
+    public ResponseEntity<ArchivageRapportDTO> archiver() {
+        return new ResponseEntity<>(archivageService.lancer(), HttpStatus.ACCEPTED);
+    }
+
+    // GET /api/archives/archivage : progression ou bilan du dernier passage
+    @GetMapping("/archivage")
+    public ResponseEntity<ArchivageRapportDTO> etatArchivage() {
+        return ResponseEntity.ok(archivageService.etat());
+    }
+}
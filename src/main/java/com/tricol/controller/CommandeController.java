@@ -1,45 +1,115 @@
 package com.tricol.controller;
 
 import com.tricol.dto.CommandeDTO;
+import com.tricol.dto.CommandeDetailDTO;
+import com.tricol.dto.LivraisonLotDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.service.CacheVersionService;
 import com.tricol.service.CommandeService;
 import com.tricol.service.FournisseurService;
+import com.tricol.service.IdempotenceService;
+import com.tricol.service.LivraisonService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/commandes")
 @RequiredArgsConstructor
 public class CommandeController {
     private final CommandeService commandeService;
+    private final IdempotenceService idempotenceService;
+    private final LivraisonService livraisonService;
+    private final CacheVersionService cacheVersionService;
+    private final FluxJson fluxJson;
 
     //Get All
     @GetMapping
-    public ResponseEntity<Page<CommandeDTO>> getAll(@RequestParam(defaultValue = "0") int page,@RequestParam(defaultValue = "0") int nbrEelement){
-        return ResponseEntity.ok(commandeService.getAllCommandes(page,nbrEelement));
+    public ResponseEntity<Page<CommandeDTO>> getAll(@RequestParam(defaultValue = "0") int page,@RequestParam(defaultValue = "0") int nbrEelement,
+                                                    WebRequest requete){
+        CacheVersionService.Etat etat = cacheVersionService.etatCollection(TypeEntite.COMMANDE, page + "-" + nbrEelement);
+        if (requete.checkNotModified(etat.getEtag(), etat.getModifie())) {
+            return null; // 304 sans requête en base
+        }
+        return ResponseEntity.ok().eTag(etat.getEtag()).lastModified(etat.getModifie())
+                .body(commandeService.getAllCommandes(page,nbrEelement));
+    }
+
+    //Get All en streaming (grandes pages ; nbrEelement <= 0 pour un export complet)
+    @GetMapping(value = "/flux", produces = MediaType.APPLICATION_JSON_VALUE)
+    public WebAsyncTask<Void> getAllFlux(@RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "10000") int nbrEelement,
+                                         HttpServletResponse reponse){
+        return fluxJson.envoyer(reponse, fluxJson.<CommandeDTO>page(page, nbrEelement,
+                consommateur -> commandeService.parcourirCommandes(page, nbrEelement, consommateur)));
+    }
+
+    // GET /api/commandes?ids=1,2,3 : résolution groupée des références (un seul aller-retour)
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CommandeDTO>> getCommandesByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(commandeService.getCommandesByIds(ids));
+    }
+
+    // POST /api/commandes/recherche avec [1,2,3,...] : même chose pour les ensembles trop grands pour une URL
+    @PostMapping("/recherche")
+    public ResponseEntity<List<CommandeDTO>> rechercherCommandesByIds(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(commandeService.getCommandesByIds(ids));
     }
 
     //Get by id
     @GetMapping("/{id}")
-    public ResponseEntity<CommandeDTO> getCommandeById(@PathVariable int id){
-        return ResponseEntity.ok(commandeService.getById(id));
+    public ResponseEntity<CommandeDTO> getCommandeById(@PathVariable int id, WebRequest requete){
+        CacheVersionService.Etat etat = cacheVersionService.etat(TypeEntite.COMMANDE, id);
+        if (etat != null && requete.checkNotModified(etat.getEtag(), etat.getModifie())) {
+            return null; // 304 sans requête en base
+        }
+        long generation = cacheVersionService.generation(TypeEntite.COMMANDE);
+        CommandeDTO dto = commandeService.getById(id);
+        etat = cacheVersionService.enregistrer(TypeEntite.COMMANDE, id, dto.getVersion(), generation);
+        return ResponseEntity.ok().eTag(etat.getEtag()).lastModified(etat.getModifie()).body(dto);
+    }
+
+    //Get détail : en-tête, lignes et produits en un appel (lignes paginées pour les grosses commandes)
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<CommandeDetailDTO> getCommandeDetail(@PathVariable int id,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "100") int nbrEelement){
+        return ResponseEntity.ok(commandeService.getDetail(id, page, nbrEelement));
     }
 
     //Post
     @PostMapping
-    public ResponseEntity<CommandeDTO> createCommande(@RequestBody CommandeDTO commandeDTO){
-        CommandeDTO commandeDTOCreated=commandeService.createCommande(commandeDTO);
+    public ResponseEntity<CommandeDTO> createCommande(@RequestBody CommandeDTO commandeDTO,
+                                                      @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle){
+        CommandeDTO commandeDTOCreated=idempotenceService.executer("POST /api/commandes", cle, commandeDTO,
+                () -> commandeService.createCommande(commandeDTO));
         return ResponseEntity.ok(commandeDTOCreated);
     }
 
     //Put
     @PutMapping("/{id}")
-    public ResponseEntity<CommandeDTO> updateCommande(@PathVariable int id,@RequestBody CommandeDTO commandeDTO){
-        CommandeDTO commandeDTOUpdated=commandeService.updateCommande(id,commandeDTO);
+    public ResponseEntity<CommandeDTO> updateCommande(@PathVariable int id,@RequestBody CommandeDTO commandeDTO,
+                                                      @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle){
+        CommandeDTO commandeDTOUpdated=idempotenceService.executer("PUT /api/commandes/" + id, cle, commandeDTO,
+                () -> commandeService.updateCommande(id,commandeDTO));
         return ResponseEntity.ok(commandeDTOUpdated);
     }
 
+    //Post : livraison d'un lot de commandes (fin de poste entrepôt)
+    @PostMapping("/livraisons")
+    public ResponseEntity<LivraisonLotDTO> livrerCommandes(@RequestBody List<Integer> commandeIds,
+                                                           @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle){
+        return ResponseEntity.ok(idempotenceService.executer("POST /api/commandes/livraisons", cle, commandeIds,
+                () -> livraisonService.livrerCommandes(commandeIds)));
+    }
+
     //Delete
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCommande(@PathVariable int id){
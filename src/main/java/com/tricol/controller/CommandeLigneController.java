@@ -4,21 +4,37 @@ import com.tricol.dto.CommandeDTO;
 import com.tricol.dto.CommandeLigneDTO;
 import com.tricol.model.CommandeLigne;
 import com.tricol.service.CommandeLigneService;
+import com.tricol.service.IdempotenceService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/api/commandes-lignes")
 @RequiredArgsConstructor
 public class CommandeLigneController {
     private final CommandeLigneService commandeLigneService;
+    private final IdempotenceService idempotenceService;
+    private final FluxJson fluxJson;
 
     //Get All
     @GetMapping
-    public ResponseEntity<Page<CommandeLigneDTO>> getAll(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "0") int nbrEelement){
-        return ResponseEntity.ok(commandeLigneService.getAll(page,nbrEelement));
+    public ResponseEntity<Page<CommandeLigneDTO>> getAll(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "0") int nbrEelement,
+                                                         @RequestParam(required = false) Integer commandeId){
+        return ResponseEntity.ok(commandeLigneService.getAll(page,nbrEelement,commandeId));
+    }
+
+    //Get All en streaming (grandes pages ; nbrEelement <= 0 pour un export complet)
+    @GetMapping(value = "/flux", produces = MediaType.APPLICATION_JSON_VALUE)
+    public WebAsyncTask<Void> getAllFlux(@RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "10000") int nbrEelement,
+                                         HttpServletResponse reponse){
+        return fluxJson.envoyer(reponse, fluxJson.<CommandeLigneDTO>page(page, nbrEelement,
+                consommateur -> commandeLigneService.parcourirLignes(page, nbrEelement, consommateur)));
     }
 
     //Get by id
@@ -29,8 +45,10 @@ public class CommandeLigneController {
 
     //Post
     @PostMapping
-    public ResponseEntity<CommandeLigneDTO> createCommandeLigne(@RequestBody CommandeLigneDTO commandeLigneDTO){
-        CommandeLigneDTO commandeLigneDTOCreated=commandeLigneService.createCommandeLigne(commandeLigneDTO);
+    public ResponseEntity<CommandeLigneDTO> createCommandeLigne(@RequestBody CommandeLigneDTO commandeLigneDTO,
+                                                                @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle){
+        CommandeLigneDTO commandeLigneDTOCreated=idempotenceService.executer("POST /api/commandes-lignes", cle, commandeLigneDTO,
+                () -> commandeLigneService.createCommandeLigne(commandeLigneDTO));
         return ResponseEntity.ok(commandeLigneDTOCreated);
     }
 
@@ -0,0 +1,93 @@
+package com.tricol.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+// Écrit une liste JSON au fur et à mesure que le service produit les DTO : seul le tampon du
+// générateur (et de la compression gzip) est en mémoire, quelle que soit la taille de la page.
+// Format : {"content":[...],"number":0,"size":10000,"numberOfElements":n} — sans totalElements,
+// qui coûterait une requête count.
+//
+// Erreur en cours d'écriture : le statut 200 et le début de la liste sont déjà partis, on ne peut plus
+// répondre 500. L'erreur est journalisée puis relancée sans refermer le JSON ; le conteneur coupe alors
+// la connexion sans terminer la réponse (pas de dernier bloc chunked), et le client voit une réponse
+// tronquée en erreur plutôt qu'une liste courte mais valide.
+@Slf4j
+@Component
+public class FluxJson {
+
+    @FunctionalInterface
+    public interface Parcours<T> {
+        int parcourir(Consumer<T> consommateur);
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final long delaiMs;
+
+    public FluxJson(ObjectMapper objectMapper,
+                    @Value("${tricol.flux.delai-ms:600000}") long delaiMs) {
+        this.objectMapper = objectMapper;
+        // pas de flush après chaque élément : on laisse le générateur remplir son tampon
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.delaiMs = delaiMs;
+    }
+
+    public <T> StreamingResponseBody page(int page, int nbrElement, Parcours<T> parcours) {
+        return sortie -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(sortie);
+            // à la fermeture après une erreur, ne pas compléter les tableaux et objets ouverts
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            try (json) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("content");
+                int nombre = parcours.parcourir(dto -> {
+                    try {
+                        writer.writeValue(json, dto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                json.writeNumberField("number", Math.max(page, 0));
+                json.writeNumberField("size", nbrElement);
+                json.writeNumberField("numberOfElements", nombre);
+                json.writeEndObject();
+            } catch (UncheckedIOException e) {
+                // écriture impossible : le plus souvent le client a fermé la connexion
+                log.warn("Liste en flux interrompue (page {}) : {}", page, e.getCause().getMessage());
+                throw e.getCause();
+            } catch (IOException e) {
+                log.warn("Liste en flux interrompue (page {}) : {}", page, e.getMessage());
+                throw e;
+            } catch (RuntimeException e) {
+                log.error("Échec de la liste en flux (page {}) après l'envoi des en-têtes : réponse tronquée", page, e);
+                throw e;
+            }
+        };
+    }
+
+    // Traitement asynchrone avec son propre délai ("tricol.flux.delai-ms", 10 min par défaut) : un export
+    // complet dure bien plus longtemps que le délai asynchrone par défaut, qui reste celui des autres routes
+    public WebAsyncTask<Void> envoyer(HttpServletResponse reponse, StreamingResponseBody corps) {
+        reponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        return new WebAsyncTask<>(delaiMs, () -> {
+            corps.writeTo(reponse.getOutputStream());
+            reponse.flushBuffer();
+            return null;
+        });
+    }
+}
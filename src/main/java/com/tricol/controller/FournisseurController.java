@@ -1,13 +1,23 @@
 package com.tricol.controller;
 
 import com.tricol.dto.FournisseurDTO;
+import com.tricol.dto.ImportFournisseursDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.service.CacheVersionService;
+import com.tricol.service.FournisseurImportService;
 import com.tricol.service.FournisseurService;
+import com.tricol.service.IdempotenceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -16,21 +26,47 @@ import java.util.List;
 public class FournisseurController {
 
     private final FournisseurService fournisseurService;
+    private final IdempotenceService idempotenceService;
+    private final CacheVersionService cacheVersionService;
+    private final FournisseurImportService fournisseurImportService;
 
     // GET /api/fournisseurs
     @GetMapping
-    public ResponseEntity<Page<FournisseurDTO>> getAllFournisseurs(@RequestParam(defaultValue = "0") int page,@RequestParam(defaultValue = "0") int nbrElement) {
+    public ResponseEntity<Page<FournisseurDTO>> getAllFournisseurs(@RequestParam(defaultValue = "0") int page,@RequestParam(defaultValue = "0") int nbrElement,
+                                                                   WebRequest requete) {
+        CacheVersionService.Etat etat = cacheVersionService.etatCollection(TypeEntite.FOURNISSEUR, page + "-" + nbrElement);
+        if (requete.checkNotModified(etat.getEtag(), etat.getModifie())) {
+            return null; // 304 sans requête en base
+        }
+        return ResponseEntity.ok().eTag(etat.getEtag()).lastModified(etat.getModifie())
+                .body(fournisseurService.getAllFournisseurs(page,nbrElement));
+    }
+
+    // GET /api/fournisseurs?ids=1,2,3 : résolution groupée des références (un seul aller-retour)
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<FournisseurDTO>> getFournisseursByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(fournisseurService.getFournisseursByIds(ids));
+    }
 
-        return ResponseEntity.ok(fournisseurService.getAllFournisseurs(page,nbrElement));
+    // POST /api/fournisseurs/recherche avec [1,2,3,...] : même chose pour les ensembles trop grands pour une URL
+    @PostMapping("/recherche")
+    public ResponseEntity<List<FournisseurDTO>> rechercherFournisseursByIds(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(fournisseurService.getFournisseursByIds(ids));
     }
 
     // GET /api/fournisseurs/{id}
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getFournisseurById(@PathVariable int id) {
+    public ResponseEntity<?> getFournisseurById(@PathVariable int id, WebRequest requete) {
+        CacheVersionService.Etat etat = cacheVersionService.etat(TypeEntite.FOURNISSEUR, id);
+        if (etat != null && requete.checkNotModified(etat.getEtag(), etat.getModifie())) {
+            return null; // 304 sans requête en base
+        }
         try {
+            long generation = cacheVersionService.generation(TypeEntite.FOURNISSEUR);
             FournisseurDTO dto = fournisseurService.getFournisseurById(id);
-            return ResponseEntity.ok(dto);
+            etat = cacheVersionService.enregistrer(TypeEntite.FOURNISSEUR, id, dto.getVersion(), generation);
+            return ResponseEntity.ok().eTag(etat.getEtag()).lastModified(etat.getModifie()).body(dto);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Fournisseur non trouvé avec id : " + id);
@@ -40,11 +76,27 @@ public class FournisseurController {
 
     // POST /api/fournisseurs
     @PostMapping
-    public ResponseEntity<FournisseurDTO> createFournisseur(@RequestBody FournisseurDTO fournisseurDTO) {
-        FournisseurDTO created = fournisseurService.createFournisseur(fournisseurDTO);
+    public ResponseEntity<FournisseurDTO> createFournisseur(@RequestBody FournisseurDTO fournisseurDTO,
+                                                            @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle) {
+        FournisseurDTO created = idempotenceService.executer("POST /api/fournisseurs", cle, fournisseurDTO,
+                () -> fournisseurService.createFournisseur(fournisseurDTO));
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // POST /api/fournisseurs/import : fichier CSV (en-tête societe,adresse,contact,email,telephone,ville,ice)
+    // ou NDJSON (un FournisseurDTO par ligne), lu en flux ; dédoublonnage et mise à jour par ICE
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportFournisseursDTO> importerFournisseurs(InputStream corps,
+                                                                      @RequestHeader(HttpHeaders.CONTENT_TYPE) String type,
+                                                                      @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long taille,
+                                                                      @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle) {
+        FournisseurImportService.Format format = MediaType.parseMediaType(type).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? FournisseurImportService.Format.CSV : FournisseurImportService.Format.NDJSON;
+        // le fichier est lu en flux et jamais gardé en mémoire : la clé d'idempotence est liée à son type et à sa taille
+        return ResponseEntity.ok(idempotenceService.executer("POST /api/fournisseurs/import", cle, Arrays.asList(type, taille),
+                () -> fournisseurImportService.importer(corps, format)));
+    }
+
     // PUT /api/fournisseurs/{id}
     @PutMapping("/{id}")
     public ResponseEntity<FournisseurDTO> updateFournisseur(@PathVariable int id, @RequestBody FournisseurDTO fournisseurDTO) {
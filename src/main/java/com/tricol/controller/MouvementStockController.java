@@ -2,6 +2,7 @@ package com.tricol.controller;
 
 
 import com.tricol.dto.MouvementStockDTO;
+import com.tricol.service.IdempotenceService;
 import com.tricol.service.MouvementStockService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 public class MouvementStockController {
 
     private final MouvementStockService mouvementStockService;
+    private final IdempotenceService idempotenceService;
 
     @GetMapping
     public ResponseEntity<Page<MouvementStockDTO>> getAll(@RequestParam(defaultValue = "0") int page,
@@ -27,8 +29,10 @@ public class MouvementStockController {
     }
 
     @PostMapping
-    public ResponseEntity<MouvementStockDTO> create(@RequestBody MouvementStockDTO dto){
-        return ResponseEntity.ok(mouvementStockService.create(dto));
+    public ResponseEntity<MouvementStockDTO> create(@RequestBody MouvementStockDTO dto,
+                                                    @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle){
+        return ResponseEntity.ok(idempotenceService.executer("POST /api/mouvements-stock", cle, dto,
+                () -> mouvementStockService.create(dto)));
     }
 
     @PutMapping("/{id}")
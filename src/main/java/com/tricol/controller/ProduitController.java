@@ -1,13 +1,27 @@
 package com.tricol.controller;
 
+import com.tricol.dto.AlerteStockDTO;
+import com.tricol.dto.DisponibiliteDTO;
 import com.tricol.dto.MouvementStockDTO;
 import com.tricol.dto.ProduitDTO;
+import com.tricol.dto.ReceptionLotDTO;
+import com.tricol.dto.RevalorisationRapportDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.service.AlerteStockService;
+import com.tricol.service.CacheVersionService;
+import com.tricol.service.IdempotenceService;
 import com.tricol.service.ProduitService;
+import com.tricol.service.ReceptionService;
+import com.tricol.service.RevalorisationCumpService;
+import com.tricol.service.StockFluxService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,26 +31,68 @@ import java.util.List;
 public class ProduitController {
 
     private final ProduitService produitService;
+    private final IdempotenceService idempotenceService;
+    private final RevalorisationCumpService revalorisationCumpService;
+    private final CacheVersionService cacheVersionService;
+    private final StockFluxService stockFluxService;
+    private final AlerteStockService alerteStockService;
+    private final ReceptionService receptionService;
 
     // GET /api/produits
     @GetMapping
-    public ResponseEntity<Page<ProduitDTO>> getAllProduits(@RequestParam(defaultValue = "0") int page,@RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(produitService.getAllProduits(page, size));
+    public ResponseEntity<Page<ProduitDTO>> getAllProduits(@RequestParam(defaultValue = "0") int page,@RequestParam(defaultValue = "10") int size,
+                                                           WebRequest requete) {
+        CacheVersionService.Etat etat = cacheVersionService.etatCollection(TypeEntite.PRODUIT, page + "-" + size);
+        if (requete.checkNotModified(etat.getEtag(), etat.getModifie())) {
+            return null; // 304 sans requête en base
+        }
+        return ResponseEntity.ok().eTag(etat.getEtag()).lastModified(etat.getModifie())
+                .body(produitService.getAllProduits(page, size));
+    }
+
+    // GET /api/produits?ids=1,2,3 : résolution groupée des références (un seul aller-retour)
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProduitDTO>> getProduitsByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(produitService.getProduitsByIds(ids));
+    }
+
+    // POST /api/produits/recherche avec [1,2,3,...] : même chose pour les ensembles trop grands pour une URL
+    @PostMapping("/recherche")
+    public ResponseEntity<List<ProduitDTO>> rechercherProduitsByIds(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(produitService.getProduitsByIds(ids));
     }
 
     // GET /api/produits/{id}
     @GetMapping("/{id}")
-    public ResponseEntity<ProduitDTO> getProduitById(@PathVariable int id) {
-        return ResponseEntity.ok(produitService.getProduitById(id));
+    public ResponseEntity<ProduitDTO> getProduitById(@PathVariable int id, WebRequest requete) {
+        CacheVersionService.Etat etat = cacheVersionService.etat(TypeEntite.PRODUIT, id);
+        if (etat != null && requete.checkNotModified(etat.getEtag(), etat.getModifie())) {
+            return null; // 304 sans requête en base
+        }
+        long generation = cacheVersionService.generation(TypeEntite.PRODUIT);
+        ProduitDTO dto = produitService.getProduitById(id);
+        etat = cacheVersionService.enregistrer(TypeEntite.PRODUIT, id, dto.getVersion(), generation);
+        return ResponseEntity.ok().eTag(etat.getEtag()).lastModified(etat.getModifie()).body(dto);
     }
 
     // POST /api/produits
     @PostMapping
-    public ResponseEntity<ProduitDTO> createProduit(@RequestBody ProduitDTO produitDTO) {
-        ProduitDTO created = produitService.createProduit(produitDTO);
+    public ResponseEntity<ProduitDTO> createProduit(@RequestBody ProduitDTO produitDTO,
+                                                    @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle) {
+        // une réception rejouée ne doit pas refusionner le CUMP ni réincrémenter le stock
+        ProduitDTO created = idempotenceService.executer("POST /api/produits", cle, produitDTO,
+                () -> produitService.createProduit(produitDTO));
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // POST /api/produits/receptions : bordereau de livraison fournisseur complet (fusion CUMP et stock en lot)
+    @PostMapping("/receptions")
+    public ResponseEntity<ReceptionLotDTO> receptionner(@RequestBody List<ProduitDTO> bordereau,
+                                                        @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle) {
+        return ResponseEntity.ok(idempotenceService.executer("POST /api/produits/receptions", cle, bordereau,
+                () -> receptionService.receptionner(bordereau)));
+    }
+
     // PUT /api/produits/{id}
     @PutMapping("/{id}")
     public ResponseEntity<ProduitDTO> updateProduit(@PathVariable int id, @RequestBody ProduitDTO produitDTO) {
@@ -44,6 +100,42 @@ public class ProduitController {
         return ResponseEntity.ok(updated);
     }
 
+    // DELETE /api/produits/{id}/seuil-alerte : retire le seuil (le produit sort des alertes)
+    @DeleteMapping("/{id}/seuil-alerte")
+    public ResponseEntity<ProduitDTO> supprimerSeuilAlerte(@PathVariable int id) {
+        return ResponseEntity.ok(produitService.supprimerSeuilAlerte(id));
+    }
+
+    // GET /api/produits/{id}/disponible : stock, réservé et disponible à la vente
+    @GetMapping("/{id}/disponible")
+    public ResponseEntity<DisponibiliteDTO> getDisponibilite(@PathVariable int id) {
+        return ResponseEntity.ok(produitService.getDisponibilite(id));
+    }
+
+    // GET /api/produits/alertes : produits sous leur seuil de réapprovisionnement
+    @GetMapping("/alertes")
+    public ResponseEntity<List<AlerteStockDTO>> getAlertes() {
+        return ResponseEntity.ok(alerteStockService.getAlertes());
+    }
+
+    // GET /api/produits/stock/flux : changements de stock poussés en SSE (remplace le polling des tableaux de bord)
+    @GetMapping(value = "/stock/flux", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter fluxStock() {
+        return stockFluxService.abonner();
+    }
+
+    // POST /api/produits/revalorisation : recalcul du CUMP de tout le catalogue depuis l'historique d'achat
+    @PostMapping("/revalorisation")
+    public ResponseEntity<RevalorisationRapportDTO> lancerRevalorisation() {
+        return new ResponseEntity<>(revalorisationCumpService.lancer(), HttpStatus.ACCEPTED);
+    }
+
+    // GET /api/produits/revalorisation : progression et débit de la revalorisation
+    @GetMapping("/revalorisation")
+    public ResponseEntity<RevalorisationRapportDTO> etatRevalorisation() {
+        return ResponseEntity.ok(revalorisationCumpService.etat());
+    }
+
     // DELETE /api/produits/{id}
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduit(@PathVariable int id) {
@@ -0,0 +1,14 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AlerteStockDTO {
+    private int produitId;
+    private String nom;
+    private int stockActuel;
+    private int seuilAlerte;
+}
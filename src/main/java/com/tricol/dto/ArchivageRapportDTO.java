@@ -0,0 +1,21 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivageRapportDTO {
+    private boolean enCours;
+    private LocalDateTime limite;
+    private int lots;
+    private long commandes;
+    private long lignes;
+    private long mouvements;
+    private long dureeMs;
+    private double commandesParSeconde;
+    private String erreur;
+}
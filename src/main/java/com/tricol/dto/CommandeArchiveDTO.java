@@ -0,0 +1,25 @@
+package com.tricol.dto;
+
+import com.tricol.enums.StatutCommande;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommandeArchiveDTO {
+    private int id;
+    private LocalDateTime dateCommande;
+    private StatutCommande statut;
+    private BigDecimal montantTotal;
+    private int fournisseurId;
+    private LocalDateTime dateArchivage;
+
+    // renseignés uniquement par GET /api/archives/commandes/{id}
+    private List<CommandeLigneDTO> lignes;
+    private List<MouvementStockDTO> mouvements;
+}
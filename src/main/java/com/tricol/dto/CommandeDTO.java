@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.tricol.enums.StatutCommande;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,6 +15,9 @@ public class CommandeDTO {
     private int id;
     private LocalDateTime dateCommande;
     private StatutCommande statut;
-    private Double montantTotal;
+    private BigDecimal montantTotal;
     private int fournisseurId;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
\ No newline at end of file
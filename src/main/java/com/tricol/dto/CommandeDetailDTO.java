@@ -0,0 +1,28 @@
+package com.tricol.dto;
+
+import com.tricol.enums.StatutCommande;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// En-tête de commande + une tranche de ses lignes (pagination sans comptage : "suivante" indique s'il en reste)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommandeDetailDTO {
+    private int id;
+    private LocalDateTime dateCommande;
+    private StatutCommande statut;
+    private BigDecimal montantTotal;
+    private int fournisseurId;
+    private String fournisseurSociete;
+    private Long version;
+
+    private List<LigneDetailDTO> lignes;
+    private int page;
+    private int nbrElement;
+    private boolean suivante;
+}
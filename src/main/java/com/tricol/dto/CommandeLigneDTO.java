@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,5 +19,5 @@ public class CommandeLigneDTO {
     private int quantite;
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
-    private double prixAchat;
+    private BigDecimal prixAchat;
 }
\ No newline at end of file
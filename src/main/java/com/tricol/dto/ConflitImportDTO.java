@@ -0,0 +1,13 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConflitImportDTO {
+    private long ligne;
+    private String ice;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+// Disponible à la vente d'un produit : stock physique moins les quantités réservées par les commandes validées
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DisponibiliteDTO {
+    private int produitId;
+    private String nom;
+    private int stockActuel;
+    private int stockReserve;
+    private int disponible;
+}
@@ -1,5 +1,6 @@
 package com.tricol.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 
@@ -20,4 +21,7 @@ public class FournisseurDTO {
     private String telephone;
     private String ville;
     private String ICE;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportFournisseursDTO {
+    private long lignes;
+    private long crees;
+    private long misAJour;
+    private long rejetees;
+
+    // détail des lignes rejetées (borné : conflitsTronques indique qu'il y en a d'autres)
+    private List<ConflitImportDTO> conflits;
+    private boolean conflitsTronques;
+
+    private long dureeMs;
+    private double lignesParSeconde;
+}
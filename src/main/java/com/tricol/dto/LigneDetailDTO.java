@@ -0,0 +1,19 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Ligne de commande avec le résumé du produit, pour le détail d'une commande
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LigneDetailDTO {
+    private int id;
+    private int quantite;
+    private BigDecimal prixAchat;
+    private int produitId;
+    private String produitNom;
+    private String produitCategorie;
+}
@@ -0,0 +1,19 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LivraisonLotDTO {
+    private List<LivraisonResultatDTO> resultats;
+    private int livrees;
+    private int echecs;
+
+    // mesures du lot (comparables au chemin PUT /api/commandes/{id} commande par commande)
+    private long dureeMs;
+    private double commandesParSeconde;
+}
@@ -0,0 +1,13 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LivraisonResultatDTO {
+    private int commandeId;
+    private boolean succes;
+    private String message;
+}
@@ -3,6 +3,8 @@ package com.tricol.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,10 +13,14 @@ public class ProduitDTO {
     private int id;
     private String nom;
     private String description;
-    private double prixUnitaire;
+    private BigDecimal prixUnitaire;
     private String categorie;
     private int stockActuel;
+    private Integer seuilAlerte;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private BigDecimal coutMoyenUnitaire;
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
-    private double coutMoyenUnitaire;
+    private Long version;
 }
@@ -0,0 +1,13 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReceptionLotDTO {
+    private int lignes;
+    private int produits;
+    private int passes;
+}
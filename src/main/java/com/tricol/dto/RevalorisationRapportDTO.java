@@ -0,0 +1,18 @@
+package com.tricol.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevalorisationRapportDTO {
+    private boolean enCours;
+    private int partitions;
+    private int partitionsTerminees;
+    private long lignesTraitees;
+    private long produitsMisAJour;
+    private long dureeMs;
+    private double lignesParSeconde;
+    private String erreur;
+}
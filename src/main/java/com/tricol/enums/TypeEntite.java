@@ -0,0 +1,7 @@
+package com.tricol.enums;
+
+public enum TypeEntite {
+    PRODUIT,
+    FOURNISSEUR,
+    COMMANDE
+}
@@ -0,0 +1,17 @@
+package com.tricol.event;
+
+import com.tricol.enums.TypeEntite;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Publié par les services après toute écriture ; id null = toutes les entités du type
+@Getter
+@AllArgsConstructor
+public class EntiteModifieeEvent {
+    private final TypeEntite type;
+    private final Integer id;
+
+    public static EntiteModifieeEvent tout(TypeEntite type) {
+        return new EntiteModifieeEvent(type, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.tricol.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Publié à chaque changement de stockActuel d'un produit
+@Getter
+@AllArgsConstructor
+public class StockModifieEvent {
+    private final int produitId;
+    private final String nom;
+    private final int stockActuel;
+    private final Integer seuilAlerte;
+}
@@ -0,0 +1,14 @@
+package com.tricol.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Clé Idempotency-Key déjà utilisée pour une requête de contenu différent : rejouer le résultat mémorisé
+// renverrait la réponse d'une autre opération
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class CleIdempotenceReutiliseeException extends RuntimeException {
+
+    public CleIdempotenceReutiliseeException(String message) {
+        super(message);
+    }
+}
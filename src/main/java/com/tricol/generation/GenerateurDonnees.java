@@ -0,0 +1,309 @@
+package com.tricol.generation;
+
+import com.tricol.enums.StatutCommande;
+import com.tricol.enums.TypeMouvement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Générateur de données synthétiques à l'échelle de la production, pour les bancs de performance.
+// Désactivé par défaut ; lancement typique (base vide ou non, les noms et ICE générés restent uniques) :
+//   java -jar tricol.jar --spring.main.web-application-type=none --tricol.generation.actif=true \
+//        --tricol.generation.fournisseurs=100000 --tricol.generation.produits=1000000 \
+//        --tricol.generation.commandes=10000000 --tricol.generation.lignes=100000000 \
+//        --tricol.generation.mouvements=10000000
+// Les insertions passent par des batchs JDBC ; avec reWriteBatchedInserts=true côté PostgreSQL
+// chaque batch devient un INSERT multi-lignes, ce qui approche le débit d'un COPY.
+// Les ids des fournisseurs, produits et commandes sont ceux renvoyés par l'insertion elle-même
+// (clés générées, INSERT ... RETURNING id côté PostgreSQL) : une autre écriture concurrente sur les
+// mêmes tables ne peut pas s'intercaler dans les liens générés.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tricol.generation.actif", havingValue = "true")
+public class GenerateurDonnees implements CommandLineRunner {
+
+    private static final String SQL_FOURNISSEUR =
+            "INSERT INTO fournisseur (societe, adresse, contact, email, telephone, ville, ice) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_PRODUIT =
+            "INSERT INTO produit (nom, description, prix_unitaire, categorie, stock_actuel, cout_moyen_unitaire, seuil_alerte) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_COMMANDE =
+            "INSERT INTO commandes (date_commande, statut, montant_total, id_fournisseur) VALUES (?, ?, ?, ?)";
+    private static final String SQL_LIGNE =
+            "INSERT INTO commandes_lignes (id_produit, id_commande, quantite, prix_achat) VALUES (?, ?, ?, ?)";
+    private static final String SQL_MOUVEMENT =
+            "INSERT INTO mouvements_stock (id_commande, type_mouvement, quantite, date_mouvement) VALUES (?, ?, ?, ?)";
+
+    private static final String[] VILLES = {"Casablanca", "Rabat", "Tanger", "Fès", "Marrakech", "Agadir", "Meknès", "Oujda", "Kénitra", "Tétouan"};
+    // Casablanca concentre l'essentiel des fournisseurs
+    private static final int[] POIDS_VILLES = {35, 15, 12, 9, 8, 7, 5, 3, 3, 3};
+    private static final String[] CATEGORIES = {"Matière première", "Emballage", "Quincaillerie", "Électrique", "Chimie", "Textile", "Bureau", "Outillage"};
+    private static final int[] POIDS_CATEGORIES = {30, 20, 15, 10, 10, 8, 4, 3};
+    private static final StatutCommande[] STATUTS = {StatutCommande.LIVREE, StatutCommande.VALIDEE, StatutCommande.EN_ATTENTE, StatutCommande.ANNULEE};
+    private static final int[] POIDS_STATUTS = {70, 15, 10, 5};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long fournisseurs;
+    private final long produits;
+    private final long commandes;
+    private final long lignes;
+    private final long mouvements;
+    private final int tailleLot;
+    private final int historiqueJours;
+    private final Random random;
+
+    public GenerateurDonnees(JdbcTemplate jdbcTemplate,
+                             @Value("${tricol.generation.fournisseurs:1000}") long fournisseurs,
+                             @Value("${tricol.generation.produits:10000}") long produits,
+                             @Value("${tricol.generation.commandes:100000}") long commandes,
+                             @Value("${tricol.generation.lignes:1000000}") long lignes,
+                             @Value("${tricol.generation.mouvements:100000}") long mouvements,
+                             @Value("${tricol.generation.taille-lot:5000}") int tailleLot,
+                             @Value("${tricol.generation.historique-jours:1095}") int historiqueJours,
+                             @Value("${tricol.generation.graine:42}") long graine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fournisseurs = fournisseurs;
+        this.produits = produits;
+        this.commandes = commandes;
+        this.lignes = lignes;
+        this.mouvements = mouvements;
+        this.tailleLot = tailleLot;
+        this.historiqueJours = historiqueJours;
+        this.random = new Random(graine);
+    }
+
+    @Override
+    public void run(String... args) {
+        long debut = System.nanoTime();
+        int[] fournisseurIds = genererFournisseurs();
+        log.info("{} fournisseurs générés", fournisseurIds.length);
+        int[][] produitsIdsEtPrix = genererProduits();
+        log.info("{} produits générés", produitsIdsEtPrix[0].length);
+        genererCommandes(fournisseurIds, produitsIdsEtPrix[0], produitsIdsEtPrix[1]);
+        log.info("Génération terminée en {} s", (System.nanoTime() - debut) / 1_000_000_000);
+    }
+
+    private int[] genererFournisseurs() {
+        // sert seulement à rendre les noms et ICE uniques d'un lancement à l'autre, pas à deviner les ids
+        long depart = maxId("fournisseur");
+        int[] ids = new int[Math.toIntExact(fournisseurs)];
+        int inseres = 0;
+        List<Object[]> lot = new ArrayList<>(tailleLot);
+        for (long i = 1; i <= fournisseurs; i++) {
+            long n = depart + i;
+            lot.add(new Object[]{
+                    "Société " + n,
+                    (1 + random.nextInt(300)) + " boulevard " + n,
+                    "Contact " + n,
+                    "contact" + n + "@fournisseur.ma",
+                    String.format("06%08d", n % 100_000_000),
+                    VILLES[tirer(POIDS_VILLES)],
+                    // ICE marocain : 15 chiffres, unique
+                    String.format("%015d", n)
+            });
+            if (lot.size() == tailleLot) {
+                inseres = inserer(SQL_FOURNISSEUR, lot, ids, inseres);
+            }
+        }
+        if (!lot.isEmpty()) {
+            inserer(SQL_FOURNISSEUR, lot, ids, inseres);
+        }
+        return ids;
+    }
+
+    // renvoie {ids, prix en centimes} dans le même ordre
+    private int[][] genererProduits() {
+        long depart = maxId("produit");
+        int[] ids = new int[Math.toIntExact(produits)];
+        int inseres = 0;
+        int[] prix = new int[Math.toIntExact(produits)];
+        List<Object[]> lot = new ArrayList<>(tailleLot);
+        for (int i = 0; i < produits; i++) {
+            long n = depart + i + 1;
+            // prix log-normal centré sur ~80 DH : beaucoup d'articles bon marché, quelques articles chers
+            prix[i] = (int) Math.max(50, Math.min(10_000_000, Math.round(Math.exp(9 + random.nextGaussian()))));
+            BigDecimal prixDecimal = BigDecimal.valueOf(prix[i], 2);
+            // un produit sur cinq a un seuil de réapprovisionnement
+            Integer seuil = random.nextInt(5) == 0 ? 10 + random.nextInt(90) : null;
+            lot.add(new Object[]{
+                    "Article " + n,
+                    "Article généré " + n,
+                    prixDecimal,
+                    CATEGORIES[tirer(POIDS_CATEGORIES)],
+                    // stocks très inégaux : la plupart faibles, quelques gros volumes
+                    (int) (2_000 * Math.pow(random.nextDouble(), 3)),
+                    prixDecimal,
+                    seuil
+            });
+            if (lot.size() == tailleLot) {
+                inseres = inserer(SQL_PRODUIT, lot, ids, inseres);
+            }
+        }
+        if (!lot.isEmpty()) {
+            inserer(SQL_PRODUIT, lot, ids, inseres);
+        }
+        return new int[][]{ids, prix};
+    }
+
+    // Les commandes sont générées par lots avec leurs lignes (pour calculer montant_total)
+    // puis leurs mouvements, rattachés aux ids renvoyés par l'insertion du lot.
+    private void genererCommandes(int[] fournisseurIds, int[] produitIds, int[] prixProduits) {
+        double lignesParCommande = commandes == 0 ? 0 : (double) lignes / commandes;
+        // POIDS_STATUTS totalise 100 : part des commandes livrées, seules à porter des mouvements
+        double mouvementsParLivraison = commandes == 0 ? 0 : mouvements / (commandes * POIDS_STATUTS[0] / 100.0);
+        LocalDateTime maintenant = LocalDateTime.now();
+        long lignesEcrites = 0;
+        long mouvementsEcrits = 0;
+
+        for (long fait = 0; fait < commandes; fait += tailleLot) {
+            int taille = (int) Math.min(tailleLot, commandes - fait);
+            List<Object[]> lotCommandes = new ArrayList<>(taille);
+            // {index produit, quantité, prix en centimes} par ligne, regroupées par commande
+            List<List<int[]>> lignesDuLot = new ArrayList<>(taille);
+            StatutCommande[] statuts = new StatutCommande[taille];
+            LocalDateTime[] dates = new LocalDateTime[taille];
+
+            for (int c = 0; c < taille; c++) {
+                int nbLignes = Math.max(1, poisson(lignesParCommande));
+                List<int[]> lignesCommande = new ArrayList<>(nbLignes);
+                long montant = 0;
+                for (int l = 0; l < nbLignes; l++) {
+                    // quelques produits concentrent la majorité des achats
+                    int p = (int) (produitIds.length * Math.pow(random.nextDouble(), 3));
+                    int quantite = 1 + (int) (100 * Math.pow(random.nextDouble(), 2));
+                    // prix d'achat à ±10 % du prix catalogue
+                    int prix = (int) Math.max(1, prixProduits[p] * (0.9 + 0.2 * random.nextDouble()));
+                    lignesCommande.add(new int[]{p, quantite, prix});
+                    montant += (long) quantite * prix;
+                }
+                statuts[c] = STATUTS[tirer(POIDS_STATUTS)];
+                dates[c] = maintenant.minusMinutes((long) (random.nextDouble() * historiqueJours * 24 * 60));
+                lignesDuLot.add(lignesCommande);
+                lotCommandes.add(new Object[]{
+                        Timestamp.valueOf(dates[c]),
+                        statuts[c].name(),
+                        BigDecimal.valueOf(montant, 2),
+                        // fournisseurs également déséquilibrés
+                        fournisseurIds[(int) (fournisseurIds.length * Math.pow(random.nextDouble(), 2))]
+                });
+            }
+
+            int[] ids = new int[taille];
+            inserer(SQL_COMMANDE, lotCommandes, ids, 0);
+
+            List<Object[]> lotLignes = new ArrayList<>();
+            List<Object[]> lotMouvements = new ArrayList<>();
+            for (int c = 0; c < ids.length; c++) {
+                int quantiteTotale = 0;
+                for (int[] ligne : lignesDuLot.get(c)) {
+                    lotLignes.add(new Object[]{produitIds[ligne[0]], ids[c], ligne[1], BigDecimal.valueOf(ligne[2], 2)});
+                    quantiteTotale += ligne[1];
+                }
+                if (lotLignes.size() >= tailleLot) {
+                    jdbcTemplate.batchUpdate(SQL_LIGNE, lotLignes);
+                    lignesEcrites += lotLignes.size();
+                    lotLignes.clear();
+                }
+                // mouvements uniquement pour les commandes livrées, comme traiterLivraisonCommande
+                if (statuts[c] == StatutCommande.LIVREE) {
+                    int nbMouvements = poisson(mouvementsParLivraison);
+                    for (int m = 0; m < nbMouvements; m++) {
+                        lotMouvements.add(new Object[]{ids[c], TypeMouvement.ENTREE.name(), quantiteTotale,
+                                Date.valueOf(dates[c].toLocalDate().plusDays(random.nextInt(15)))});
+                    }
+                }
+            }
+            if (!lotLignes.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_LIGNE, lotLignes);
+                lignesEcrites += lotLignes.size();
+            }
+            if (!lotMouvements.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_MOUVEMENT, lotMouvements);
+                mouvementsEcrits += lotMouvements.size();
+            }
+            log.info("{} / {} commandes ({} lignes, {} mouvements)", fait + taille, commandes, lignesEcrites, mouvementsEcrits);
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    // Insère le lot en un batch, range les ids générés (dans l'ordre du lot) dans ids à partir de
+    // l'indice debut, vide le lot et renvoie l'indice suivant
+    private int inserer(String sql, List<Object[]> lot, int[] ids, int debut) {
+        KeyHolder cles = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, new String[]{"id"}), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                // même liaison (nulls typés compris) que batchUpdate(sql, List<Object[]>)
+                new ArgumentPreparedStatementSetter(lot.get(i)).setValues(ps);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lot.size();
+            }
+        }, cles);
+        List<Map<String, Object>> generes = cles.getKeyList();
+        if (generes.size() != lot.size()) {
+            throw new IllegalStateException("Ids générés incomplets : " + generes.size() + " pour " + lot.size() + " lignes");
+        }
+        int i = debut;
+        for (Map<String, Object> cle : generes) {
+            // une seule colonne demandée (id) ; son libellé dépend de la base (ID sous H2)
+            ids[i++] = ((Number) cle.values().iterator().next()).intValue();
+        }
+        lot.clear();
+        return i;
+    }
+
+    private int tirer(int[] poids) {
+        int total = 0;
+        for (int p : poids) {
+            total += p;
+        }
+        int r = random.nextInt(total);
+        for (int i = 0; i < poids.length; i++) {
+            r -= poids[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return poids.length - 1;
+    }
+
+    // loi de Poisson (méthode de Knuth, suffisante pour des moyennes faibles)
+    private int poisson(double moyenne) {
+        if (moyenne <= 0) {
+            return 0;
+        }
+        double limite = Math.exp(-moyenne);
+        double produit = random.nextDouble();
+        int k = 0;
+        while (produit > limite) {
+            k++;
+            produit *= random.nextDouble();
+        }
+        return k;
+    }
+}
@@ -0,0 +1,160 @@
+package com.tricol.invalidation;
+
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.service.CacheVersionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+// Invalidation des caches entre instances (optionnelle, tricol.invalidation.actif=true) :
+// - chaque EntiteModifieeEvent validé (après commit) est ajouté au lot en cours ; les doublons d'une rafale
+//   d'écritures se fondent, et au-delà de "seuil-tout" ids d'un même type le lot invalide tout le type ;
+// - toutes les "vidage-ms", le lot part sur le transport en un ou plusieurs messages
+//   "noeud;PRODUIT:1,2,3;FOURNISSEUR:*" de moins de TAILLE_MAX_MESSAGE caractères ;
+// - à la réception, chaque instance (sauf l'émettrice, déjà invalidée par CacheVersionService) invalide
+//   les entrées reçues en un passage par type. Après une perte possible de messages (reconnexion du
+//   transport), tous les types sont invalidés.
+// Une autre instance peut donc servir une version périmée pendant au plus vidage-ms + le délai du transport.
+@Slf4j
+@Component
+public class BusInvalidation {
+
+    // marge sous la limite de 8000 octets d'une notification PostgreSQL (message en ASCII)
+    static final int TAILLE_MAX_MESSAGE = 7_900;
+    private static final String TOUT = "*";
+
+    private final TransportInvalidation transport;
+    private final CacheVersionService cacheVersionService;
+    private final boolean actif;
+    private final int seuilTout;
+    private final String noeud = UUID.randomUUID().toString();
+
+    // lot en cours : type -> ids modifiés, null = tout le type
+    private final Map<TypeEntite, Set<Integer>> enAttente = new EnumMap<>(TypeEntite.class);
+
+    public BusInvalidation(TransportInvalidation transport,
+                           CacheVersionService cacheVersionService,
+                           @Value("${tricol.invalidation.actif:false}") boolean actif,
+                           @Value("${tricol.invalidation.seuil-tout:500}") int seuilTout) {
+        this.transport = transport;
+        this.cacheVersionService = cacheVersionService;
+        this.actif = actif;
+        this.seuilTout = seuilTout;
+    }
+
+    @PostConstruct
+    public void demarrer() {
+        if (actif) {
+            transport.abonner(this::recevoir, this::toutInvalider);
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        vider();
+    }
+
+    // après commit uniquement, comme CacheVersionService : une transaction annulée n'invalide rien ailleurs
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntiteModifiee(EntiteModifieeEvent event) {
+        if (actif) {
+            ajouter(event.getType(), event.getId() == null ? null : Set.of(event.getId()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tricol.invalidation.vidage-ms:50}")
+    public void vider() {
+        if (!actif) {
+            return;
+        }
+        Map<TypeEntite, Set<Integer>> lot;
+        synchronized (enAttente) {
+            if (enAttente.isEmpty()) {
+                return;
+            }
+            lot = new EnumMap<>(enAttente);
+            enAttente.clear();
+        }
+        try {
+            messages(lot).forEach(transport::publier);
+        } catch (RuntimeException e) {
+            // renvoyé au prochain vidage ; un message déjà parti en double ne fait qu'invalider deux fois
+            log.warn("Diffusion des invalidations impossible, nouvel essai au prochain vidage : {}", e.getMessage());
+            lot.forEach(this::ajouter);
+        }
+    }
+
+    private void ajouter(TypeEntite type, Set<Integer> ids) {
+        synchronized (enAttente) {
+            if (enAttente.containsKey(type) && enAttente.get(type) == null) {
+                return;
+            }
+            if (ids == null) {
+                enAttente.put(type, null);
+                return;
+            }
+            Set<Integer> lot = enAttente.computeIfAbsent(type, t -> new HashSet<>());
+            lot.addAll(ids);
+            if (lot.size() > seuilTout) {
+                enAttente.put(type, null);
+            }
+        }
+    }
+
+    List<String> messages(Map<TypeEntite, Set<Integer>> lot) {
+        List<String> messages = new ArrayList<>();
+        StringBuilder message = new StringBuilder(noeud);
+        for (Map.Entry<TypeEntite, Set<Integer>> entree : lot.entrySet()) {
+            String entete = ";" + entree.getKey().name() + ":";
+            Collection<?> valeurs = entree.getValue() == null ? List.of(TOUT) : entree.getValue();
+            boolean ouvert = false;
+            for (Object valeur : valeurs) {
+                String texte = valeur.toString();
+                if (message.length() + (ouvert ? 1 : entete.length()) + texte.length() > TAILLE_MAX_MESSAGE) {
+                    messages.add(message.toString());
+                    message = new StringBuilder(noeud);
+                    ouvert = false;
+                }
+                message.append(ouvert ? "," : entete).append(texte);
+                ouvert = true;
+            }
+        }
+        messages.add(message.toString());
+        return messages;
+    }
+
+    void recevoir(String message) {
+        String[] parties = message.split(";");
+        if (parties[0].equals(noeud)) {
+            return;
+        }
+        for (int i = 1; i < parties.length; i++) {
+            int separateur = parties[i].indexOf(':');
+            TypeEntite type = TypeEntite.valueOf(parties[i].substring(0, separateur));
+            String valeurs = parties[i].substring(separateur + 1);
+            if (TOUT.equals(valeurs)) {
+                cacheVersionService.invalider(type, null);
+            } else {
+                List<Integer> ids = new ArrayList<>();
+                for (String id : valeurs.split(",")) {
+                    ids.add(Integer.valueOf(id));
+                }
+                cacheVersionService.invaliderLot(type, ids);
+            }
+        }
+    }
+
+    private void toutInvalider() {
+        log.info("Invalidations possiblement perdues : tous les caches de version sont vidés");
+        for (TypeEntite type : TypeEntite.values()) {
+            cacheVersionService.invalider(type, null);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tricol.invalidation;
+
+import java.util.function.Consumer;
+
+// Canal de diffusion des invalidations entre instances (voir BusInvalidation).
+// Chaque message publié est remis à tous les abonnés, y compris à l'instance qui l'a publié.
+public interface TransportInvalidation {
+
+    void publier(String message);
+
+    // recepteur : messages reçus ; resynchroniser : appelé quand des messages ont pu être perdus
+    // (reconnexion), l'abonné doit alors tout considérer comme périmé
+    void abonner(Consumer<String> recepteur, Runnable resynchroniser);
+}
@@ -0,0 +1,28 @@
+package com.tricol.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Transport dans la JVM (tests, instance unique) : remise synchrone à chaque abonné
+public class TransportMemoire implements TransportInvalidation {
+
+    private final List<Consumer<String>> recepteurs = new CopyOnWriteArrayList<>();
+    private final AtomicLong publies = new AtomicLong();
+
+    @Override
+    public void publier(String message) {
+        publies.incrementAndGet();
+        recepteurs.forEach(recepteur -> recepteur.accept(message));
+    }
+
+    @Override
+    public void abonner(Consumer<String> recepteur, Runnable resynchroniser) {
+        recepteurs.add(recepteur);
+    }
+
+    public long publies() {
+        return publies.get();
+    }
+}
@@ -0,0 +1,100 @@
+package com.tricol.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+// Transport PostgreSQL LISTEN/NOTIFY :
+// - publier : pg_notify sur une connexion du pool ; hors transaction, la notification part tout de suite,
+//   dans une transaction, au commit (jamais pour une transaction annulée) ;
+// - écoute : un fil dédié garde une connexion du pool en LISTEN (le pool compte donc une connexion de moins)
+//   et relève les notifications toutes les 500 ms au plus. Si la connexion tombe, il se reconnecte et
+//   demande une resynchronisation : les notifications émises pendant la coupure sont perdues.
+// Charge utile limitée à 8000 octets par notification (découpage fait par BusInvalidation).
+@Slf4j
+public class TransportPostgres implements TransportInvalidation, AutoCloseable {
+
+    public static final String CANAL = "tricol_invalidation";
+
+    private static final String SQL_NOTIFIER = "SELECT pg_notify(?, ?)";
+    private static final int ATTENTE_MS = 500;
+    private static final long PAUSE_RECONNEXION_MS = 1_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean arrete;
+    private Thread ecoute;
+
+    public TransportPostgres(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void publier(String message) {
+        jdbcTemplate.query(SQL_NOTIFIER, (ResultSetExtractor<Void>) rs -> null, CANAL, message);
+    }
+
+    @Override
+    public synchronized void abonner(Consumer<String> recepteur, Runnable resynchroniser) {
+        if (ecoute != null) {
+            throw new IllegalStateException("Un seul abonné par transport PostgreSQL");
+        }
+        ecoute = new Thread(() -> ecouter(recepteur, resynchroniser), "tricol-invalidation");
+        ecoute.setDaemon(true);
+        ecoute.start();
+    }
+
+    private void ecouter(Consumer<String> recepteur, Runnable resynchroniser) {
+        boolean reconnexion = false;
+        while (!arrete) {
+            try (Connection connexion = dataSource.getConnection()) {
+                connexion.setAutoCommit(true);
+                try (Statement requete = connexion.createStatement()) {
+                    requete.execute("LISTEN " + CANAL);
+                }
+                if (reconnexion) {
+                    resynchroniser.run();
+                }
+                PGConnection pg = connexion.unwrap(PGConnection.class);
+                while (!arrete) {
+                    PGNotification[] notifications = pg.getNotifications(ATTENTE_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            recepteur.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (arrete) {
+                    return;
+                }
+                log.warn("Écoute des invalidations interrompue, reconnexion : {}", e.getMessage());
+                reconnexion = true;
+                try {
+                    Thread.sleep(PAUSE_RECONNEXION_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        arrete = true;
+        if (ecoute != null) {
+            ecoute.join(2L * ATTENTE_MS);
+        }
+    }
+}
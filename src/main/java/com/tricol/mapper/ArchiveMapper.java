@@ -0,0 +1,22 @@
+package com.tricol.mapper;
+
+import com.tricol.dto.CommandeArchiveDTO;
+import com.tricol.dto.CommandeLigneDTO;
+import com.tricol.dto.MouvementStockDTO;
+import com.tricol.model.CommandeArchive;
+import com.tricol.model.CommandeLigneArchive;
+import com.tricol.model.MouvementStockArchive;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ArchiveMapper {
+
+    @Mapping(target = "lignes", ignore = true)
+    @Mapping(target = "mouvements", ignore = true)
+    CommandeArchiveDTO toDTO(CommandeArchive commande);
+
+    CommandeLigneDTO toDTO(CommandeLigneArchive ligne);
+
+    MouvementStockDTO toDTO(MouvementStockArchive mouvement);
+}
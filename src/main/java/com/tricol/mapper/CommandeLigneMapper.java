@@ -1,11 +1,23 @@
 package com.tricol.mapper;
 
 import com.tricol.dto.CommandeLigneDTO;
+import com.tricol.dto.LigneDetailDTO;
 import com.tricol.model.CommandeLigne;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface CommandeLigneMapper {
+    @Mapping(source = "produit.id", target = "produitId")
+    @Mapping(source = "commande.id", target = "commandeId")
     CommandeLigneDTO toDTO(CommandeLigne commandeLigne);
+
+    @Mapping(target = "produit", ignore = true)
+    @Mapping(target = "commande", ignore = true)
     CommandeLigne toEntiry(CommandeLigneDTO commandeLigneDTO);
+
+    @Mapping(source = "produit.id", target = "produitId")
+    @Mapping(source = "produit.nom", target = "produitNom")
+    @Mapping(source = "produit.categorie", target = "produitCategorie")
+    LigneDetailDTO toDetail(CommandeLigne commandeLigne);
 }
@@ -11,6 +11,7 @@ public interface CommandeMapper {
     @Mapping(source = "fournisseur.id", target = "fournisseurId")
     CommandeDTO  toDTO(Commande commande);
     @Mapping(source = "fournisseurId", target = "fournisseur.id")
+    @Mapping(target = "lignes", ignore = true)
     Commande toEntity(CommandeDTO commandeDTO);
 }
 
@@ -5,6 +5,7 @@ package com.tricol.mapper;
 import com.tricol.model.Produit;
 import com.tricol.dto.ProduitDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper(componentModel = "spring")
@@ -14,5 +15,7 @@ public interface ProduitMapper {
 
     ProduitDTO toDTO(Produit produit);
 
+    // le stock réservé n'est modifié que par les réservations (ReservationService)
+    @Mapping(target = "stockReserve", ignore = true)
     Produit toEntity(ProduitDTO produitDTO);
 }
@@ -4,8 +4,11 @@ package com.tricol.model;
 import com.tricol.enums.StatutCommande;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
 @Table(name = "commandes")
@@ -24,12 +27,24 @@ public class Commande {
     @Enumerated(EnumType.STRING)
     private StatutCommande statut;
 
-    @Column(name="montant_total")
-    private double montantTotal;
+    @Column(name="montant_total", precision = 12, scale = 2)
+    private BigDecimal montantTotal;
 
-    @ManyToOne
+    // paresseux : les listes et le multi-get n'ont besoin que de l'id (lu sur le proxy sans requête) ;
+    // les chemins qui affichent le fournisseur le joignent explicitement (findAvecFournisseurById, flux)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="id_fournisseur",nullable = false)
     private Fournisseur fournisseur;
 
+    // lignes chargées à la demande, par paquets de 50 commandes quand on parcourt une liste
+    // (les lignes restent créées et supprimées via CommandeLigneService)
+    @OneToMany(mappedBy = "commande")
+    @BatchSize(size = 50)
+    private List<CommandeLigne> lignes;
+
+    // incrémentée à chaque écriture (sert aussi d'ETag)
+    @Version
+    private Long version;
+
 
 }
\ No newline at end of file
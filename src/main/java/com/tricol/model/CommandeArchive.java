@@ -0,0 +1,40 @@
+package com.tricol.model;
+
+import com.tricol.enums.StatutCommande;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Commande close (LIVREE / ANNULEE) déplacée hors de "commandes" par ArchivageService ; lecture seule.
+// Même id que la commande d'origine, fournisseur gardé par id (il peut avoir été supprimé depuis).
+@Entity
+@Immutable
+@Table(name = "commandes_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommandeArchive {
+
+    @Id
+    private int id;
+
+    @Column(name = "date_commande")
+    private LocalDateTime dateCommande;
+
+    @Enumerated(EnumType.STRING)
+    private StatutCommande statut;
+
+    @Column(name = "montant_total", precision = 12, scale = 2)
+    private BigDecimal montantTotal;
+
+    @Column(name = "id_fournisseur")
+    private int fournisseurId;
+
+    @Column(name = "date_archivage")
+    private LocalDateTime dateArchivage;
+}
@@ -3,6 +3,8 @@ package com.tricol.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 @Entity
 @Table(name = "commandes_lignes")
 @Getter
@@ -27,6 +29,6 @@ public class CommandeLigne {
     private Commande commande;
     private int quantite;
 
-    @Column(name = "prix_achat")
-    private double prixAchat;
+    @Column(name = "prix_achat", precision = 10, scale = 2)
+    private BigDecimal prixAchat;
 }
@@ -0,0 +1,32 @@
+package com.tricol.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+@Entity
+@Immutable
+@Table(name = "commandes_lignes_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommandeLigneArchive {
+
+    @Id
+    private int id;
+
+    @Column(name = "id_produit")
+    private int produitId;
+
+    @Column(name = "id_commande")
+    private int commandeId;
+
+    private int quantite;
+
+    @Column(name = "prix_achat", precision = 10, scale = 2)
+    private BigDecimal prixAchat;
+}
@@ -36,4 +36,8 @@ public class Fournisseur {
 
     @OneToMany(mappedBy = "fournisseur",cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Commande> commandes;
+
+    // incrémentée à chaque écriture (sert aussi d'ETag)
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.tricol.model;
+
+import com.tricol.enums.TypeMouvement;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+@Entity
+@Immutable
+@Table(name = "mouvements_stock_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MouvementStockArchive {
+
+    @Id
+    private int id;
+
+    private LocalDate dateMouvement;
+
+    @Enumerated(EnumType.STRING)
+    private TypeMouvement typeMouvement;
+
+    private int quantite;
+
+    @Column(name = "id_commande")
+    private int commandeId;
+}
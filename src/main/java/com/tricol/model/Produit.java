@@ -2,8 +2,15 @@ package com.tricol.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.math.BigDecimal;
+
+// UPDATE limité aux colonnes modifiées : une écriture JPA qui ne touche pas au stock
+// n'écrase pas les reports du moteur de stock (MoteurStock)
 @Entity
+@DynamicUpdate
 @Table(name = "produit")
 @Getter
 @Setter
@@ -16,13 +23,14 @@ public class Produit {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
 
-    @Column(nullable = false)
+    // clé de fusion des réceptions
+    @Column(nullable = false, unique = true)
     private String nom;
 
     private String description;
 
-    @Column(name = "prix_unitaire")
-    private double prixUnitaire;
+    @Column(name = "prix_unitaire", precision = 10, scale = 2)
+    private BigDecimal prixUnitaire;
 
     @Column(name = "categorie")
     private String categorie;
@@ -30,7 +38,21 @@ public class Produit {
     @Column(name = "stock_actuel")
     private int stockActuel;
 
-    @Column(name = "cout_moyen_unitaire")
-    private double coutMoyenUnitaire;
+    // quantités réservées par les commandes validées (ReservationService) ; disponible = stockActuel - stockReserve
+    // défaut en base : les INSERT JDBC (réceptions, imports) n'ont pas à la renseigner
+    @ColumnDefault("0")
+    @Column(name = "stock_reserve", nullable = false)
+    private int stockReserve;
+
+    // point de commande : en dessous, le produit apparaît dans les alertes (null = pas d'alerte)
+    @Column(name = "seuil_alerte")
+    private Integer seuilAlerte;
+
+    @Column(name = "cout_moyen_unitaire", precision = 10, scale = 2)
+    private BigDecimal coutMoyenUnitaire;
+
+    // incrémentée à chaque écriture (sert aussi d'ETag)
+    @Version
+    private Long version;
 
 }
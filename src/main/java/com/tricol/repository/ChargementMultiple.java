@@ -0,0 +1,49 @@
+package com.tricol.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+// Chargement d'entités par lot d'ids : Hibernate regarde d'abord le contexte de persistance (et le cache
+// de second niveau s'il est activé), puis charge les manquants avec des requêtes "id IN (...)" d'au plus
+// "taille-lot" ids chacune.
+@Component
+public class ChargementMultiple {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int tailleLot;
+    private final int maximum;
+
+    public ChargementMultiple(@Value("${tricol.multi-get.taille-lot:1000}") int tailleLot,
+                              @Value("${tricol.multi-get.maximum:10000}") int maximum) {
+        this.tailleLot = tailleLot;
+        this.maximum = maximum;
+    }
+
+    // Entités trouvées, dans l'ordre des ids demandés (doublons et ids inconnus ignorés)
+    public <T> List<T> charger(Class<T> type, Collection<Integer> ids) {
+        List<Integer> distincts = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distincts.size() > maximum) {
+            throw new RuntimeException("Trop d'identifiants demandés : " + distincts.size() + " (maximum " + maximum + ")");
+        }
+        if (distincts.isEmpty()) {
+            return List.of();
+        }
+        List<T> entites = entityManager.unwrap(Session.class)
+                .byMultipleIds(type)
+                .withBatchSize(tailleLot)
+                .enableSessionCheck(true)
+                .multiLoad(distincts);
+        return entites.stream().filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.tricol.repository;
+
+import com.tricol.model.CommandeArchive;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CommandeArchiveRepository extends JpaRepository<CommandeArchive, Integer> {
+
+    Page<CommandeArchive> findByFournisseurId(int fournisseurId, Pageable pageable);
+}
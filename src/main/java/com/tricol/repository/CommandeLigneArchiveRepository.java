@@ -0,0 +1,11 @@
+package com.tricol.repository;
+
+import com.tricol.model.CommandeLigneArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CommandeLigneArchiveRepository extends JpaRepository<CommandeLigneArchive, Integer> {
+
+    List<CommandeLigneArchive> findByCommandeIdOrderById(int commandeId);
+}
@@ -2,10 +2,42 @@ package com.tricol.repository;
 
 import com.tricol.model.Commande;
 import com.tricol.model.CommandeLigne;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CommandeLigneRepository extends JpaRepository<CommandeLigne,Integer> {
     List<CommandeLigne> findByCommande(Commande commande);
-}
\ No newline at end of file
+
+    // toutes les lignes d'un lot de commandes, produits inclus, en une seule requête
+    @Query("select l from CommandeLigne l join fetch l.produit where l.commande.id in :ids order by l.commande.id, l.id")
+    List<CommandeLigne> findByCommandeIdIn(@Param("ids") Collection<Integer> ids);
+
+    // produits d'un ensemble de commandes, à verrouiller avant de lire leur stock
+    @Query("select distinct l.produit.id from CommandeLigne l where l.commande.id in :ids")
+    List<Integer> findProduitIdsByCommandeIdIn(@Param("ids") Collection<Integer> ids);
+
+    // lecture au fil de l'eau (curseur JDBC) pour les listes en streaming, produit et commande joints
+    @EntityGraph(attributePaths = {"produit", "commande"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<CommandeLigne> streamBy(Pageable pageable);
+
+    // lignes d'une commande (filtre de GET /api/commandes-lignes)
+    @EntityGraph(attributePaths = {"produit", "commande"})
+    Page<CommandeLigne> findByCommandeId(int commandeId, Pageable pageable);
+
+    // tranche de lignes du détail de commande, produit inclus ; Slice : pas de requête count
+    @Query("select l from CommandeLigne l join fetch l.produit where l.commande.id = :commandeId")
+    Slice<CommandeLigne> findTrancheByCommandeId(@Param("commandeId") int commandeId, Pageable pageable);
+}
@@ -1,7 +1,26 @@
 package com.tricol.repository;
 
 import com.tricol.model.Commande;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CommandeRepository extends JpaRepository<Commande,Integer> {
+
+    // lecture au fil de l'eau (curseur JDBC) pour les listes en streaming, fournisseur joint
+    @EntityGraph(attributePaths = "fournisseur")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Commande> streamBy(Pageable pageable);
+
+    // en-tête du détail de commande : fournisseur inclus, une seule requête
+    @Query("select c from Commande c join fetch c.fournisseur where c.id = :id")
+    Optional<Commande> findAvecFournisseurById(@Param("id") int id);
 }
@@ -0,0 +1,31 @@
+package com.tricol.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Base réellement derrière la DataSource, lue une fois dans les métadonnées JDBC : les écritures en lot
+// n'utilisent les instructions propres à PostgreSQL (ON CONFLICT ...) que lorsqu'elles sont disponibles.
+@Component
+public class DialecteSql {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String base;
+
+    public DialecteSql(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean estPostgres() {
+        return "PostgreSQL".equalsIgnoreCase(base());
+    }
+
+    private String base() {
+        String resultat = base;
+        if (resultat == null) {
+            resultat = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            base = resultat;
+        }
+        return resultat;
+    }
+}
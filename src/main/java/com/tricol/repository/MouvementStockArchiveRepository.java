@@ -0,0 +1,11 @@
+package com.tricol.repository;
+
+import com.tricol.model.MouvementStockArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MouvementStockArchiveRepository extends JpaRepository<MouvementStockArchive, Integer> {
+
+    List<MouvementStockArchive> findByCommandeIdOrderById(int commandeId);
+}
@@ -2,7 +2,14 @@ package com.tricol.repository;
 
 import com.tricol.model.Produit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface ProduitRepository extends JpaRepository<Produit,Integer> {
     Produit findByNom(String nom);
+
+    // chargement initial de l'index des alertes (une seule fois au démarrage)
+    @Query("select p from Produit p where p.seuilAlerte is not null and p.stockActuel < p.seuilAlerte")
+    List<Produit> findEnAlerte();
 }
@@ -0,0 +1,124 @@
+package com.tricol.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Verrous métier partagés entre instances (livraisons concurrentes d'une même commande ou de commandes
+// qui partagent des produits), pris pour la durée de la transaction courante :
+// - PostgreSQL : pg_advisory_xact_lock(espace, id), libérés par le commit ou le rollback, vus par tous les
+//   noeuds ; un interblocage éventuel est détecté et annulé par la base ;
+// - autres bases (H2 en test) : verrous locaux à la JVM, par bandes, libérés à la fin de la transaction,
+//   avec une attente bornée (tricol.verrous.attente-ms) à la place de la détection d'interblocage.
+// Ordre d'acquisition imposé pour éviter les interblocages : commandes puis produits, chacun par ids
+// croissants et en un seul appel par transaction.
+@Component
+public class VerrousDistribues {
+
+    private static final int ESPACE_COMMANDE = 1;
+    private static final int ESPACE_PRODUIT = 2;
+
+    // la sous-requête triée fixe l'ordre des appels : un seul aller-retour pour tout l'ensemble
+    private static final String SQL_VERROUILLER =
+            "SELECT COUNT(pg_advisory_xact_lock(?, id)) FROM (SELECT id FROM unnest(?) AS t(id) ORDER BY id) ids";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DialecteSql dialecteSql;
+    private final long attenteMs;
+    private final ReentrantLock[] commandes;
+    private final ReentrantLock[] produits;
+
+    public VerrousDistribues(JdbcTemplate jdbcTemplate,
+                             DialecteSql dialecteSql,
+                             @Value("${tricol.verrous.bandes:1024}") int bandes,
+                             @Value("${tricol.verrous.attente-ms:10000}") long attenteMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialecteSql = dialecteSql;
+        this.attenteMs = attenteMs;
+        this.commandes = bandes(bandes);
+        this.produits = bandes(bandes);
+    }
+
+    public void verrouillerCommandes(Collection<Integer> ids) {
+        verrouiller(ESPACE_COMMANDE, commandes, ids);
+    }
+
+    public void verrouillerProduits(Collection<Integer> ids) {
+        verrouiller(ESPACE_PRODUIT, produits, ids);
+    }
+
+    private void verrouiller(int espace, ReentrantLock[] locaux, Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Les verrous métier se prennent dans une transaction");
+        }
+        if (dialecteSql.estPostgres()) {
+            Integer[] tries = new TreeSet<>(ids).toArray(new Integer[0]);
+            jdbcTemplate.execute((ConnectionCallback<Void>) connexion -> {
+                Array tableau = connexion.createArrayOf("integer", tries);
+                try (PreparedStatement requete = connexion.prepareStatement(SQL_VERROUILLER)) {
+                    requete.setInt(1, espace);
+                    requete.setArray(2, tableau);
+                    try (ResultSet rs = requete.executeQuery()) {
+                        rs.next();
+                    }
+                } finally {
+                    tableau.free();
+                }
+                return null;
+            });
+        } else {
+            verrouillerLocalement(locaux, ids);
+        }
+    }
+
+    private void verrouillerLocalement(ReentrantLock[] locaux, Collection<Integer> ids) {
+        TreeSet<Integer> bandes = new TreeSet<>();
+        ids.forEach(id -> bandes.add(Math.floorMod(id, locaux.length)));
+        List<ReentrantLock> pris = new ArrayList<>(bandes.size());
+        try {
+            for (int bande : bandes) {
+                if (!locaux[bande].tryLock(attenteMs, TimeUnit.MILLISECONDS)) {
+                    throw new RuntimeException("Ressource occupée par un autre traitement, veuillez réessayer");
+                }
+                pris.add(locaux[bande]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pris.forEach(ReentrantLock::unlock);
+            throw new RuntimeException("Attente de verrou interrompue", e);
+        } catch (RuntimeException e) {
+            pris.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                pris.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    private static ReentrantLock[] bandes(int nombre) {
+        ReentrantLock[] verrous = new ReentrantLock[nombre];
+        for (int i = 0; i < nombre; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+        return verrous;
+    }
+}
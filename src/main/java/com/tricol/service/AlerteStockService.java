@@ -0,0 +1,70 @@
+package com.tricol.service;
+
+import com.tricol.dto.AlerteStockDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.event.StockModifieEvent;
+import com.tricol.model.Produit;
+import com.tricol.repository.ProduitRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Index en mémoire des produits sous leur seuil d'alerte, tenu à jour à chaque mutation de stock :
+// aucune requête sur le catalogue après le chargement initial, et la lecture coûte O(alertes).
+@Service
+@RequiredArgsConstructor
+public class AlerteStockService {
+
+    private final ProduitRepository produitRepository;
+
+    private final Map<Integer, AlerteStockDTO> alertes = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        for (Produit produit : produitRepository.findEnAlerte()) {
+            evaluer(produit.getId(), produit.getNom(), produit.getStockActuel(), produit.getSeuilAlerte());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockModifie(StockModifieEvent event) {
+        evaluer(event.getProduitId(), event.getNom(), event.getStockActuel(), event.getSeuilAlerte());
+    }
+
+    // seul cas à traiter hors mutation de stock : un produit en alerte a été supprimé
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntiteModifiee(EntiteModifieeEvent event) {
+        if (event.getType() == TypeEntite.PRODUIT && event.getId() != null
+                && alertes.containsKey(event.getId()) && !produitRepository.existsById(event.getId())) {
+            alertes.remove(event.getId());
+        }
+    }
+
+    // les plus critiques d'abord (stock le plus loin sous le seuil)
+    public List<AlerteStockDTO> getAlertes() {
+        return alertes.values().stream()
+                .sorted(Comparator.comparingInt(a -> a.getStockActuel() - a.getSeuilAlerte()))
+                .toList();
+    }
+
+    private void evaluer(int produitId, String nom, int stockActuel, Integer seuilAlerte) {
+        if (seuilAlerte != null && stockActuel < seuilAlerte) {
+            alertes.put(produitId, AlerteStockDTO.builder()
+                    .produitId(produitId)
+                    .nom(nom)
+                    .stockActuel(stockActuel)
+                    .seuilAlerte(seuilAlerte)
+                    .build());
+        } else {
+            alertes.remove(produitId);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.tricol.service;
+
+import com.tricol.dto.ArchivageRapportDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class ArchivageService {
+
+    // Commandes closes plus anciennes que la limite, verrouillées pour la durée du lot
+    private static final String SQL_COMMANDES =
+            "SELECT id FROM commandes WHERE statut IN ('LIVREE', 'ANNULEE') AND date_commande < ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String SQL_ARCHIVER_COMMANDES =
+            "INSERT INTO commandes_archive (id, date_commande, statut, montant_total, id_fournisseur, date_archivage) " +
+            "SELECT id, date_commande, statut, montant_total, id_fournisseur, CURRENT_TIMESTAMP FROM commandes WHERE id IN (:ids)";
+    private static final String SQL_ARCHIVER_LIGNES =
+            "INSERT INTO commandes_lignes_archive (id, id_produit, id_commande, quantite, prix_achat) " +
+            "SELECT id, id_produit, id_commande, quantite, prix_achat FROM commandes_lignes WHERE id_commande IN (:ids)";
+    private static final String SQL_ARCHIVER_MOUVEMENTS =
+            "INSERT INTO mouvements_stock_archive (id, id_commande, type_mouvement, quantite, date_mouvement) " +
+            "SELECT id, id_commande, type_mouvement, quantite, date_mouvement FROM mouvements_stock WHERE id_commande IN (:ids)";
+
+    // même ordre de dépendances que FournisseurSuppressionService
+    private static final String SQL_SUPPRIMER_MOUVEMENTS =
+            "DELETE FROM mouvements_stock WHERE id_commande IN (:ids)";
+    private static final String SQL_SUPPRIMER_LIGNES =
+            "DELETE FROM commandes_lignes WHERE id_commande IN (:ids)";
+    private static final String SQL_SUPPRIMER_COMMANDES =
+            "DELETE FROM commandes WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate ecriture;
+    private final boolean planifie;
+    private final int ageJours;
+    private final int tailleLot;
+    private final long pauseMs;
+    private final int lotsMax;
+    // fil dédié aux passages en arrière-plan : les pauses entre lots ne bloquent pas le pool commun
+    private final ExecutorService execution = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "archivage");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean enCours = new AtomicBoolean();
+    private volatile ArchivageRapportDTO dernier = ArchivageRapportDTO.builder().build();
+
+    public ArchivageService(JdbcTemplate jdbcTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${tricol.archivage.actif:false}") boolean planifie,
+                            @Value("${tricol.archivage.age-jours:365}") int ageJours,
+                            @Value("${tricol.archivage.taille-lot:500}") int tailleLot,
+                            @Value("${tricol.archivage.pause-ms:200}") long pauseMs,
+                            @Value("${tricol.archivage.lots-max:2000}") int lotsMax) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.ecriture = new TransactionTemplate(transactionManager);
+        this.planifie = planifie;
+        this.ageJours = ageJours;
+        this.tailleLot = tailleLot;
+        this.pauseMs = pauseMs;
+        this.lotsMax = lotsMax;
+    }
+
+    // Passage nocturne (heure creuse par défaut), uniquement si tricol.archivage.actif=true ;
+    // exécuté hors du fil du planificateur, que les vidages périodiques partagent
+    @Scheduled(cron = "${tricol.archivage.cron:0 30 2 * * *}")
+    public void archiverPlanifie() {
+        if (planifie) {
+            lancer();
+        }
+    }
+
+    // Déplace les commandes closes depuis plus de "age-jours" vers les tables *_archive, par lots de
+    // "taille-lot" commandes (copie puis suppression dans la même transaction courte), avec une pause
+    // de "pause-ms" entre deux lots pour laisser passer le trafic, et au plus "lots-max" lots par passage.
+    // Renvoie l'état courant si un archivage tourne déjà.
+    public ArchivageRapportDTO archiver() {
+        if (!enCours.compareAndSet(false, true)) {
+            return etat();
+        }
+        return executer(LocalDateTime.now().minusDays(ageJours));
+    }
+
+    // Même passage en arrière-plan (déclenchement manuel par l'API) ; renvoie l'état de départ
+    public ArchivageRapportDTO lancer() {
+        if (!enCours.compareAndSet(false, true)) {
+            return etat();
+        }
+        LocalDateTime limite = LocalDateTime.now().minusDays(ageJours);
+        dernier = rapport(true, limite, 0, new long[3], System.nanoTime(), null);
+        execution.execute(() -> executer(limite));
+        return dernier;
+    }
+
+    @PreDestroy
+    void arreter() {
+        execution.shutdownNow();
+    }
+
+    private ArchivageRapportDTO executer(LocalDateTime limite) {
+        long debut = System.nanoTime();
+        int lots = 0;
+        long[] totaux = new long[3];
+        String erreur = null;
+        try {
+            long[] lot;
+            do {
+                lot = ecriture.execute(s -> archiverLot(limite));
+                if (lot[0] > 0) {
+                    // comptés une fois le lot validé
+                    lots++;
+                    totaux[0] += lot[1];
+                    totaux[1] += lot[2];
+                    totaux[2] += lot[3];
+                    dernier = rapport(true, limite, lots, totaux, debut, null);
+                    if (lot[0] == tailleLot && pauseMs > 0) {
+                        Thread.sleep(pauseMs);
+                    }
+                }
+            } while (lot[0] == tailleLot && lots < lotsMax);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            erreur = "Archivage interrompu";
+        } catch (RuntimeException e) {
+            log.error("Échec de l'archivage après {} lot(s)", lots, e);
+            erreur = e.getMessage();
+        } finally {
+            dernier = rapport(false, limite, lots, totaux, debut, erreur);
+            enCours.set(false);
+        }
+        if (totaux[0] > 0) {
+            eventPublisher.publishEvent(EntiteModifieeEvent.tout(TypeEntite.COMMANDE));
+        }
+        log.info("Archivage : {} commande(s), {} ligne(s), {} mouvement(s) en {} lot(s)", totaux[0], totaux[1], totaux[2], lots);
+        return dernier;
+    }
+
+    public ArchivageRapportDTO etat() {
+        return dernier;
+    }
+
+    // {commandes sélectionnées, commandes archivées, lignes, mouvements}
+    private long[] archiverLot(LocalDateTime limite) {
+        List<Integer> ids = jdbcTemplate.queryForList(SQL_COMMANDES, Integer.class, Timestamp.valueOf(limite), tailleLot);
+        if (ids.isEmpty()) {
+            return new long[4];
+        }
+        Map<String, List<Integer>> parametres = Map.of("ids", ids);
+        int commandes = namedJdbcTemplate.update(SQL_ARCHIVER_COMMANDES, parametres);
+        int lignes = namedJdbcTemplate.update(SQL_ARCHIVER_LIGNES, parametres);
+        int mouvements = namedJdbcTemplate.update(SQL_ARCHIVER_MOUVEMENTS, parametres);
+        namedJdbcTemplate.update(SQL_SUPPRIMER_MOUVEMENTS, parametres);
+        namedJdbcTemplate.update(SQL_SUPPRIMER_LIGNES, parametres);
+        namedJdbcTemplate.update(SQL_SUPPRIMER_COMMANDES, parametres);
+        return new long[]{ids.size(), commandes, lignes, mouvements};
+    }
+
+    private ArchivageRapportDTO rapport(boolean actif, LocalDateTime limite, int lots, long[] totaux, long debut, String erreur) {
+        long dureeNanos = Math.max(1, System.nanoTime() - debut);
+        return ArchivageRapportDTO.builder()
+                .enCours(actif)
+                .limite(limite)
+                .lots(lots)
+                .commandes(totaux[0])
+                .lignes(totaux[1])
+                .mouvements(totaux[2])
+                .dureeMs(dureeNanos / 1_000_000)
+                .commandesParSeconde(totaux[0] * 1_000_000_000.0 / dureeNanos)
+                .erreur(erreur)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.tricol.service;
+
+import com.tricol.dto.CommandeArchiveDTO;
+import com.tricol.mapper.ArchiveMapper;
+import com.tricol.model.CommandeArchive;
+import com.tricol.repository.CommandeArchiveRepository;
+import com.tricol.repository.CommandeLigneArchiveRepository;
+import com.tricol.repository.MouvementStockArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Lecture des commandes archivées : tables séparées, jamais jointes aux tables actives
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ArchiveService {
+
+    private final CommandeArchiveRepository commandeArchiveRepository;
+    private final CommandeLigneArchiveRepository commandeLigneArchiveRepository;
+    private final MouvementStockArchiveRepository mouvementStockArchiveRepository;
+    private final ArchiveMapper archiveMapper;
+
+    public Page<CommandeArchiveDTO> getCommandes(Integer fournisseurId, int page, int nbrElement) {
+        if (page < 0) page = 0;
+        if (nbrElement <= 0) nbrElement = 10; // default page size
+        Pageable pageable = PageRequest.of(page, nbrElement, Sort.by("id").ascending());
+        Page<CommandeArchive> commandes = fournisseurId == null
+                ? commandeArchiveRepository.findAll(pageable)
+                : commandeArchiveRepository.findByFournisseurId(fournisseurId, pageable);
+        return commandes.map(archiveMapper::toDTO);
+    }
+
+    public CommandeArchiveDTO getCommande(int id) {
+        CommandeArchive commande = commandeArchiveRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Commande archivée non trouvée avec id : " + id));
+        CommandeArchiveDTO dto = archiveMapper.toDTO(commande);
+        dto.setLignes(commandeLigneArchiveRepository.findByCommandeIdOrderById(id).stream()
+                .map(archiveMapper::toDTO)
+                .toList());
+        dto.setMouvements(mouvementStockArchiveRepository.findByCommandeIdOrderById(id).stream()
+                .map(archiveMapper::toDTO)
+                .toList());
+        return dto;
+    }
+}
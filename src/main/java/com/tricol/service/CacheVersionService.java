@@ -0,0 +1,114 @@
+package com.tricol.service;
+
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cache des versions servies (ETag / Last-Modified) : permet de répondre 304 aux GET
+// conditionnels sans interroger la base tant qu'aucune écriture n'a invalidé l'entrée.
+@Service
+public class CacheVersionService {
+
+    @Getter
+    @AllArgsConstructor
+    public static class Etat {
+        private final String etag;
+        private final long modifie;
+    }
+
+    // distingue les ETag de collection d'un démarrage à l'autre (la génération repart à 0)
+    private final long demarrage = System.currentTimeMillis();
+
+    // "TYPE:id" -> état, LRU borné à "capacite" entrées
+    private final Map<String, Etat> entites;
+    private final Map<TypeEntite, AtomicLong> generations = new EnumMap<>(TypeEntite.class);
+    private final Map<TypeEntite, AtomicLong> modifications = new EnumMap<>(TypeEntite.class);
+
+    public CacheVersionService(@Value("${tricol.cache-version.capacite:100000}") int capacite) {
+        this.entites = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Etat> eldest) {
+                return size() > capacite;
+            }
+        };
+        for (TypeEntite type : TypeEntite.values()) {
+            generations.put(type, new AtomicLong());
+            modifications.put(type, new AtomicLong(arrondiSeconde(demarrage)));
+        }
+    }
+
+    public long generation(TypeEntite type) {
+        return generations.get(type).get();
+    }
+
+    public Etat etat(TypeEntite type, int id) {
+        synchronized (entites) {
+            return entites.get(cle(type, id));
+        }
+    }
+
+    // Mémorise la version lue en base, sauf si une écriture du même type a eu lieu depuis
+    // le début de la lecture (generationAvantLecture) : l'entrée pourrait déjà être périmée.
+    public Etat enregistrer(TypeEntite type, int id, Long version, long generationAvantLecture) {
+        Etat etat = new Etat("\"" + type.name().toLowerCase() + "-" + id + "-v" + (version == null ? 0 : version) + "\"",
+                arrondiSeconde(System.currentTimeMillis()));
+        synchronized (entites) {
+            if (generation(type) == generationAvantLecture) {
+                entites.put(cle(type, id), etat);
+            }
+        }
+        return etat;
+    }
+
+    // ETag faible d'une page de listing : change à chaque écriture sur le type
+    public Etat etatCollection(TypeEntite type, String parametres) {
+        return new Etat("W/\"" + type.name().toLowerCase() + "-" + demarrage + "-" + generation(type) + "-" + parametres + "\"",
+                modifications.get(type).get());
+    }
+
+    public void invalider(TypeEntite type, Integer id) {
+        synchronized (entites) {
+            if (id == null) {
+                entites.keySet().removeIf(k -> k.startsWith(type.name() + ":"));
+            } else {
+                entites.remove(cle(type, id));
+            }
+            generations.get(type).incrementAndGet();
+        }
+        modifications.get(type).set(arrondiSeconde(System.currentTimeMillis()));
+    }
+
+    // invalidations reçues des autres instances : un seul passage sous verrou pour tout le lot
+    public void invaliderLot(TypeEntite type, Collection<Integer> ids) {
+        synchronized (entites) {
+            ids.forEach(id -> entites.remove(cle(type, id)));
+            generations.get(type).incrementAndGet();
+        }
+        modifications.get(type).set(arrondiSeconde(System.currentTimeMillis()));
+    }
+
+    // après commit uniquement : invalider avant aurait laissé un lecteur remettre l'ancienne version en cache
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntiteModifiee(EntiteModifieeEvent event) {
+        invalider(event.getType(), event.getId());
+    }
+
+    private static String cle(TypeEntite type, int id) {
+        return type.name() + ":" + id;
+    }
+
+    // Last-Modified est à la seconde près en HTTP
+    private static long arrondiSeconde(long millis) {
+        return millis / 1000 * 1000;
+    }
+}
@@ -1,6 +1,8 @@
 package com.tricol.service;
 
 import com.tricol.dto.CommandeLigneDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
 import com.tricol.mapper.CommandeLigneMapper;
 import com.tricol.model.Commande;
 import com.tricol.model.CommandeLigne;
@@ -8,38 +10,69 @@ import com.tricol.model.Produit;
 import com.tricol.repository.CommandeLigneRepository;
 import com.tricol.repository.CommandeRepository;
 import com.tricol.repository.ProduitRepository;
+import com.tricol.util.Montants;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class CommandeLigneService {
 
     private final CommandeLigneRepository commandeLigneRepository;
     private final CommandeLigneMapper commandeLigneMapper;
     private final ProduitRepository produitRepository;
     private final CommandeRepository commandeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // GET all
     public Page<CommandeLigneDTO> getAll(int page, int nbrElement){
+        return getAll(page, nbrElement, null);
+    }
+
+    // GET all, éventuellement limité aux lignes d'une commande
+    public Page<CommandeLigneDTO> getAll(int page, int nbrElement, Integer commandeId){
         // Ensure valid paging params
         if (page < 0) page = 0;
         if (nbrElement <= 0) nbrElement = 10; // default page size
 
         Pageable pageable = PageRequest.of(page, nbrElement, Sort.by("id").ascending());
-        Page<CommandeLigne> commandeLigne = commandeLigneRepository.findAll(pageable);
-        Page<CommandeLigneDTO> dto = commandeLigne.map(commandeLigneMapper::toDTO);
-        for(CommandeLigneDTO ligne : dto){
-            for(CommandeLigne cm : commandeLigne){
-                ligne.setCommandeId(cm.getCommande().getId());
-                ligne.setProduitId(cm.getProduit().getId());
+        Page<CommandeLigne> commandeLigne = commandeId == null
+                ? commandeLigneRepository.findAll(pageable)
+                : commandeLigneRepository.findByCommandeId(commandeId, pageable);
+        // le mapper renseigne commandeId et produitId ; Page.map matérialise les DTO dans la transaction
+        return commandeLigne.map(commandeLigneMapper::toDTO);
+    }
+
+    // Liste en streaming (voir CommandeService.parcourirCommandes)
+    public int parcourirLignes(int page, int nbrElement, Consumer<CommandeLigneDTO> consommateur) {
+        Pageable pageable = nbrElement <= 0
+                ? Pageable.unpaged(Sort.by("id").ascending())
+                : PageRequest.of(Math.max(page, 0), nbrElement, Sort.by("id").ascending());
+        int nombre = 0;
+        try (Stream<CommandeLigne> lignes = commandeLigneRepository.streamBy(pageable)) {
+            for (CommandeLigne ligne : (Iterable<CommandeLigne>) lignes::iterator) {
+                consommateur.accept(commandeLigneMapper.toDTO(ligne));
+                if (++nombre % 1_000 == 0) {
+                    entityManager.clear();
+                }
             }
         }
-        return dto;
+        return nombre;
     }
 
     // GET by id
@@ -50,6 +83,7 @@ public class CommandeLigneService {
     }
 
     // CREATE (POST) avec mapper
+    @Transactional
     public CommandeLigneDTO createCommandeLigne(CommandeLigneDTO dto){
         // Convertir le DTO en entity via mapper
         CommandeLigne ligne = commandeLigneMapper.toEntiry(dto);
@@ -76,6 +110,7 @@ public class CommandeLigneService {
     }
 
     // UPDATE (PUT) avec mapper
+    @Transactional
     public CommandeLigneDTO updateCommandeLigne(int id, CommandeLigneDTO dto){
         CommandeLigne ligne = commandeLigneRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("CommandeLigne non trouvée"));
@@ -95,6 +130,7 @@ public class CommandeLigneService {
     }
 
     // DELETE
+    @Transactional
     public void deleteCommandeLigne(int id){
         commandeLigneRepository.deleteById(id);
     }
@@ -103,12 +139,14 @@ public class CommandeLigneService {
     //la méthode pour recalculer le total de la commande
     private void recalculerMontantTotalCommande(Commande commande) {
 
-        double total = commandeLigneRepository.findByCommande(commande).stream()
-                .mapToDouble(l -> l.getPrixAchat() * l.getQuantite())
-                .sum();
+        // somme exacte en centimes, convertie une seule fois en BigDecimal
+        Montants.Total total = new Montants.Total();
+        commandeLigneRepository.findByCommande(commande)
+                .forEach(l -> total.ajouter(Montants.versCentimes(l.getPrixAchat()), l.getQuantite()));
 
-        commande.setMontantTotal(total);
+        commande.setMontantTotal(total.versDecimal());
         commandeRepository.save(commande);
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.COMMANDE, commande.getId()));
     }
 
 }
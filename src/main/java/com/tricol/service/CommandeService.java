@@ -1,27 +1,50 @@
 package com.tricol.service;
 
 import com.tricol.dto.CommandeDTO;
+import com.tricol.dto.CommandeDetailDTO;
 import com.tricol.dto.MouvementStockDTO;
 import com.tricol.enums.StatutCommande;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.event.StockModifieEvent;
+import com.tricol.mapper.CommandeLigneMapper;
 import com.tricol.mapper.CommandeMapper;
 import com.tricol.model.Commande;
 import com.tricol.model.CommandeLigne;
 import com.tricol.model.Fournisseur;
 import com.tricol.model.Produit;
+import com.tricol.repository.ChargementMultiple;
 import com.tricol.repository.CommandeLigneRepository;
 import com.tricol.repository.CommandeRepository;
 import com.tricol.repository.FournisseurRepository;
 import com.tricol.repository.ProduitRepository;
+import com.tricol.repository.VerrousDistribues;
+import com.tricol.stock.MoteurStock;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class CommandeService {
     private final CommandeRepository commandeRepository;
     private final CommandeMapper commandeMapper;
@@ -29,6 +52,15 @@ public class CommandeService {
     private final CommandeLigneRepository commandeLigneRepository;
     private final ProduitRepository produitRepository;
     private final MouvementStockService mouvementStockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CommandeLigneMapper commandeLigneMapper;
+    private final ChargementMultiple chargementMultiple;
+    private final MoteurStock moteurStock;
+    private final ReservationService reservationService;
+    private final VerrousDistribues verrousDistribues;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     //getAll commandes with pagination sorting by id ascending
     public Page<CommandeDTO> getAllCommandes(int page,int nbrElement){
@@ -36,14 +68,27 @@ public class CommandeService {
         if (nbrElement <= 0) nbrElement = 10; // default page size
         Pageable pageable= PageRequest.of(page,nbrElement, Sort.by("id").ascending());
         Page<Commande> commandes=commandeRepository.findAll(pageable);
-        Page<CommandeDTO> result = commandes.map(commandeMapper::toDTO);
-        for (CommandeDTO dto : result) {
-           for (Commande com : commandes) {
-               dto.setFournisseurId(com.getFournisseur().getId());
+        // le mapper renseigne fournisseurId ; Page.map matérialise les DTO dans la transaction
+        return commandes.map(commandeMapper::toDTO);
+    }
+
+    // Liste en streaming : chaque commande est mappée puis transmise dès sa lecture, sans construire la page.
+    // nbrElement <= 0 : toutes les commandes (export). Renvoie le nombre d'éléments transmis.
+    public int parcourirCommandes(int page, int nbrElement, Consumer<CommandeDTO> consommateur) {
+        Pageable pageable = nbrElement <= 0
+                ? Pageable.unpaged(Sort.by("id").ascending())
+                : PageRequest.of(Math.max(page, 0), nbrElement, Sort.by("id").ascending());
+        int nombre = 0;
+        try (Stream<Commande> commandes = commandeRepository.streamBy(pageable)) {
+            for (Commande commande : (Iterable<Commande>) commandes::iterator) {
+                consommateur.accept(commandeMapper.toDTO(commande));
+                // le contexte de persistance ne doit pas grossir avec l'export
+                if (++nombre % 1_000 == 0) {
+                    entityManager.clear();
+                }
             }
         }
-
-        return result;
+        return nombre;
     }
 
     //getByid
@@ -52,7 +97,42 @@ public class CommandeService {
         return commandeMapper.toDTO(commande);
     }
 
+    // Détail d'une commande en deux requêtes : en-tête + fournisseur, puis une tranche de lignes + produits.
+    // Les très grosses commandes se parcourent par pages de lignes (nbrElement plafonné à 1000).
+    public CommandeDetailDTO getDetail(int id, int page, int nbrElement){
+        if (page < 0) page = 0;
+        if (nbrElement <= 0) nbrElement = 100;
+        nbrElement = Math.min(nbrElement, 1_000);
+
+        Commande commande = commandeRepository.findAvecFournisseurById(id)
+                .orElseThrow(() -> new RuntimeException("Commande not found"));
+        Slice<CommandeLigne> lignes = commandeLigneRepository.findTrancheByCommandeId(id,
+                PageRequest.of(page, nbrElement, Sort.by("id").ascending()));
+
+        return CommandeDetailDTO.builder()
+                .id(commande.getId())
+                .dateCommande(commande.getDateCommande())
+                .statut(commande.getStatut())
+                .montantTotal(commande.getMontantTotal())
+                .fournisseurId(commande.getFournisseur().getId())
+                .fournisseurSociete(commande.getFournisseur().getSociete())
+                .version(commande.getVersion())
+                .lignes(lignes.map(commandeLigneMapper::toDetail).getContent())
+                .page(page)
+                .nbrElement(nbrElement)
+                .suivante(lignes.hasNext())
+                .build();
+    }
+
+    // Plusieurs commandes par ids en une requête IN (découpée pour les très grands ensembles)
+    public List<CommandeDTO> getCommandesByIds(Collection<Integer> ids){
+        return chargementMultiple.charger(Commande.class, ids).stream()
+                .map(commandeMapper::toDTO)
+                .toList();
+    }
+
     //save
+    @Transactional
     public CommandeDTO createCommande(CommandeDTO commandeDTO){
         // Récupérer le fournisseur
         Fournisseur fournisseur = fournisseurRepository
@@ -64,31 +144,55 @@ public class CommandeService {
         commande.setFournisseur(fournisseur);
         Commande saved=commandeRepository.save(commande);
 
+        mettreAJourReservation(null, saved);
         // Traiter livraison si le statut est LIVREE dès la création
         traiterLivraisonCommande(saved);
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.COMMANDE, saved.getId()));
 
         return commandeMapper.toDTO(saved);
     }
 
     //update
+    @Transactional
     public CommandeDTO updateCommande(int id,CommandeDTO commandeDTO){
+        // une seule instance à la fois fait passer la commande d'un statut à l'autre (lu après le verrou)
+        verrousDistribues.verrouillerCommandes(List.of(id));
         Commande commande=commandeRepository.findById(id).orElseThrow(()->new RuntimeException("Commande not found"));
         Fournisseur fournisseur=fournisseurRepository.findById(commandeDTO.getFournisseurId()).orElseThrow(()->new RuntimeException("fournisseur not found"));
+        StatutCommande ancienStatut = commande.getStatut();
         commande.setDateCommande(commandeDTO.getDateCommande());
         commande.setStatut(commandeDTO.getStatut());
         commande.setMontantTotal(commandeDTO.getMontantTotal());
         commande.setFournisseur(fournisseur);
         Commande saved=commandeRepository.save(commande);
 
-        // Traiter livraison si le statut devient LIVREE
-        traiterLivraisonCommande(saved);
+        mettreAJourReservation(ancienStatut, saved);
+        // Traiter livraison uniquement lors du passage à LIVREE (un PUT rejoué ne redécrémente pas le stock)
+        if (ancienStatut != StatutCommande.LIVREE) {
+            traiterLivraisonCommande(saved);
+        }
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.COMMANDE, id));
 
         return commandeMapper.toDTO(saved);
     }
 
     //delete
+    @Transactional
     public void deleteCommande(int id){
+        reservationService.liberer(List.of(id));
         commandeRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.COMMANDE, id));
+    }
+
+    // VALIDEE réserve le stock des lignes ; le retour en attente ou l'annulation le libère (LIVREE le consomme)
+    private void mettreAJourReservation(StatutCommande ancienStatut, Commande commande) {
+        StatutCommande statut = commande.getStatut();
+        if (statut == StatutCommande.VALIDEE && ancienStatut != StatutCommande.VALIDEE) {
+            reservationService.reserver(commande.getId());
+        } else if (ancienStatut == StatutCommande.VALIDEE
+                && (statut == StatutCommande.EN_ATTENTE || statut == StatutCommande.ANNULEE)) {
+            reservationService.liberer(List.of(commande.getId()));
+        }
     }
 
     private void traiterLivraisonCommande(Commande commande) {
@@ -96,20 +200,46 @@ public class CommandeService {
             return; // Rien à faire si la commande n'est pas LIVREE
         }
 
-        for (CommandeLigne ligne : commandeLigneRepository.findByCommande(commande)) {
-            Produit produit = ligne.getProduit();
-            int stockRestant = produit.getStockActuel() - ligne.getQuantite();
+        // produits verrouillés (ids croissants) avant la lecture de leur stock
+        verrousDistribues.verrouillerProduits(commandeLigneRepository.findProduitIdsByCommandeIdIn(List.of(commande.getId())));
+        List<CommandeLigne> lignes = commandeLigneRepository.findByCommande(commande);
+        // quantités réservées à la validation (vide si la commande n'est pas passée par VALIDEE)
+        Map<Integer, Integer> reservees = new HashMap<>(reservationService.reservations(List.of(commande.getId()))
+                .getOrDefault(commande.getId(), Map.of()));
+        if (moteurStock.actif()) {
+            reservationService.liberer(List.of(commande.getId()));
+            retirerParMoteur(lignes);
+        } else {
+            for (CommandeLigne ligne : lignes) {
+                Produit produit = ligne.getProduit();
+                // la part couverte par la réservation de la commande est acquise, le reste doit être disponible
+                int couvert = Math.min(ligne.getQuantite(), reservees.getOrDefault(produit.getId(), 0));
+                reservees.merge(produit.getId(), -couvert, Integer::sum);
+                int disponible = produit.getStockActuel() - produit.getStockReserve();
+                int stockRestant = produit.getStockActuel() - ligne.getQuantite();
 
-            if (stockRestant < 0) {
-                throw new RuntimeException(
-                        "Stock insuffisant pour le produit '" + produit.getNom() +
-                                "'. Quantité demandée : " + ligne.getQuantite() +
-                                ", stock actuel : " + produit.getStockActuel()
-                );
-            }
+                if (ligne.getQuantite() - couvert > disponible) {
+                    throw new RuntimeException(
+                            "Stock insuffisant pour le produit '" + produit.getNom() +
+                                    "'. Quantité demandée : " + ligne.getQuantite() +
+                                    ", stock actuel : " + produit.getStockActuel() +
+                                    ", stock disponible : " + disponible
+                    );
+                }
 
-            produit.setStockActuel(stockRestant);
-            produitRepository.save(produit);
+                produit.setStockActuel(stockRestant);
+                produit.setStockReserve(produit.getStockReserve() - couvert);
+                produitRepository.save(produit);
+                eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, produit.getId()));
+                eventPublisher.publishEvent(new StockModifieEvent(produit.getId(), produit.getNom(), stockRestant, produit.getSeuilAlerte()));
+            }
+            // réservation non consommée (lignes réduites après la validation) : rendue au disponible
+            reservees.forEach((produitId, reste) -> {
+                if (reste > 0) {
+                    produitRepository.findById(produitId).ifPresent(p -> p.setStockReserve(p.getStockReserve() - reste));
+                }
+            });
+            reservationService.supprimer(List.of(commande.getId()));
         }
         MouvementStockDTO mouvementDTO = MouvementStockDTO.builder()
                 .commandeId(commande.getId())
@@ -118,4 +248,28 @@ public class CommandeService {
 
         mouvementStockService.create(mouvementDTO);
     }
+
+    // Retrait tout-ou-rien par le moteur de stock (report en base différé) ; annulé avec la transaction
+    private void retirerParMoteur(List<CommandeLigne> lignes) {
+        Map<Integer, Integer> quantites = new LinkedHashMap<>();
+        Map<Integer, Produit> produits = new LinkedHashMap<>();
+        for (CommandeLigne ligne : lignes) {
+            quantites.merge(ligne.getProduit().getId(), ligne.getQuantite(), Integer::sum);
+            produits.putIfAbsent(ligne.getProduit().getId(), ligne.getProduit());
+        }
+        OptionalInt manque = moteurStock.retirerDansTransaction(quantites);
+        if (manque.isPresent()) {
+            Produit produit = produits.get(manque.getAsInt());
+            throw new RuntimeException(
+                    "Stock insuffisant pour le produit '" + produit.getNom() +
+                            "'. Quantité demandée : " + quantites.get(produit.getId()) +
+                            ", stock actuel : " + moteurStock.stock(produit.getId())
+            );
+        }
+        produits.values().forEach(produit -> {
+            eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, produit.getId()));
+            eventPublisher.publishEvent(new StockModifieEvent(produit.getId(), produit.getNom(),
+                    moteurStock.stock(produit.getId()), produit.getSeuilAlerte()));
+        });
+    }
 }
@@ -0,0 +1,321 @@
+package com.tricol.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tricol.dto.ConflitImportDTO;
+import com.tricol.dto.FournisseurDTO;
+import com.tricol.dto.ImportFournisseursDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.repository.DialecteSql;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.IntStream;
+
+@Service
+public class FournisseurImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    // L'ICE est la clé métier : un fournisseur déjà connu est mis à jour, jamais dupliqué.
+    // Seules les colonnes fournies par le fichier sont mises à jour (voir miseAJour) ;
+    // xmax = 0 distingue, ligne par ligne, une insertion d'une mise à jour dans le résultat même de l'écriture.
+    private static final String SQL_UPSERT_POSTGRES =
+            "INSERT INTO fournisseur (societe, adresse, contact, email, telephone, ville, ice, version) VALUES %s " +
+            "ON CONFLICT (ice) DO UPDATE SET %s, version = fournisseur.version + 1 RETURNING (xmax = 0)";
+    private static final String VALEURS_UPSERT = "(?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String SQL_MAJ =
+            "UPDATE fournisseur SET %s, version = version + 1 WHERE ice = ?";
+    private static final String SQL_INSERTION =
+            "INSERT INTO fournisseur (societe, adresse, contact, email, telephone, ville, ice, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final List<String> COLONNES = List.of("societe", "adresse", "contact", "email", "telephone", "ville", "ice");
+    private static final int ICE = COLONNES.indexOf("ice");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DialecteSql dialecteSql;
+    private final TransactionTemplate ecriture;
+    private final int tailleLot;
+    private final int conflitsMax;
+
+    public FournisseurImportService(JdbcTemplate jdbcTemplate,
+                                    ObjectMapper objectMapper,
+                                    ApplicationEventPublisher eventPublisher,
+                                    DialecteSql dialecteSql,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${tricol.import.taille-lot:1000}") int tailleLot,
+                                    @Value("${tricol.import.conflits-max:1000}") int conflitsMax) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.dialecteSql = dialecteSql;
+        this.ecriture = new TransactionTemplate(transactionManager);
+        this.tailleLot = tailleLot;
+        this.conflitsMax = conflitsMax;
+    }
+
+    private record Ligne(long numero, FournisseurDTO fournisseur) {
+    }
+
+    // index (dans COLONNES) des colonnes écrasées pour un ICE déjà connu, et leurs affectations SQL
+    private record MiseAJour(int[] colonnes, String affectations, String affectationsPostgres) {
+    }
+
+    private final class Rapport {
+        long lignes;
+        long crees;
+        long misAJour;
+        long rejetees;
+        final List<ConflitImportDTO> conflits = new ArrayList<>();
+
+        void rejeter(long ligne, String ice, String message) {
+            rejetees++;
+            if (conflits.size() < conflitsMax) {
+                conflits.add(ConflitImportDTO.builder().ligne(ligne).ice(ice).message(message).build());
+            }
+        }
+    }
+
+    // Import lu en flux (jamais le fichier entier en mémoire) et écrit par lots de "taille-lot" lignes,
+    // chaque lot dans sa propre transaction : un lot refusé par la base est rejoué ligne par ligne
+    // pour n'écarter que les lignes fautives. Seuls les ICE déjà vus sont gardés pour le dédoublonnage.
+    // Un fournisseur existant ne voit changer que les colonnes présentes dans l'en-tête CSV (une cellule vide
+    // d'une colonne présente efface la valeur) ; en NDJSON chaque ligne décrit le fournisseur complet.
+    public ImportFournisseursDTO importer(InputStream flux, Format format) {
+        long debut = System.nanoTime();
+        Rapport rapport = new Rapport();
+        MiseAJour miseAJour = format == Format.CSV ? null : miseAJour(IntStream.range(0, COLONNES.size()).toArray());
+        Map<String, Long> icesVus = new HashMap<>();
+        List<Ligne> lot = new ArrayList<>(tailleLot);
+
+        try (BufferedReader lecteur = new BufferedReader(new InputStreamReader(flux, StandardCharsets.UTF_8))) {
+            int[] positions = null;
+            char separateur = ',';
+            long numero = 0;
+            String texte;
+            while ((texte = lecteur.readLine()) != null) {
+                numero++;
+                if (numero == 1 && texte.startsWith("\uFEFF")) {
+                    texte = texte.substring(1);
+                }
+                if (texte.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && positions == null) {
+                    separateur = texte.indexOf(';') >= 0 && texte.indexOf(',') < 0 ? ';' : ',';
+                    positions = entete(champs(texte, separateur));
+                    miseAJour = miseAJour(positions);
+                    continue;
+                }
+                rapport.lignes++;
+
+                FournisseurDTO fournisseur;
+                try {
+                    fournisseur = format == Format.CSV
+                            ? depuisCsv(champs(texte, separateur), positions)
+                            : objectMapper.readValue(texte, FournisseurDTO.class);
+                } catch (IOException | RuntimeException e) {
+                    rapport.rejeter(numero, null, "Ligne illisible : " + e.getMessage());
+                    continue;
+                }
+
+                String ice = fournisseur.getICE() == null ? null : fournisseur.getICE().trim();
+                if (ice == null || ice.isEmpty()) {
+                    rapport.rejeter(numero, null, "ICE obligatoire");
+                    continue;
+                }
+                if (fournisseur.getSociete() == null || fournisseur.getSociete().isBlank()) {
+                    rapport.rejeter(numero, ice, "La société est obligatoire");
+                    continue;
+                }
+                Long premiere = icesVus.putIfAbsent(ice, numero);
+                if (premiere != null) {
+                    rapport.rejeter(numero, ice, "ICE en double dans le fichier (déjà présent ligne " + premiere + ")");
+                    continue;
+                }
+                fournisseur.setICE(ice);
+                lot.add(new Ligne(numero, fournisseur));
+                if (lot.size() == tailleLot) {
+                    ecrire(lot, miseAJour, rapport);
+                    lot.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture du fichier d'import impossible", e);
+        }
+        if (!lot.isEmpty()) {
+            ecrire(lot, miseAJour, rapport);
+        }
+
+        if (rapport.crees + rapport.misAJour > 0) {
+            eventPublisher.publishEvent(EntiteModifieeEvent.tout(TypeEntite.FOURNISSEUR));
+        }
+
+        long dureeNanos = Math.max(1, System.nanoTime() - debut);
+        return ImportFournisseursDTO.builder()
+                .lignes(rapport.lignes)
+                .crees(rapport.crees)
+                .misAJour(rapport.misAJour)
+                .rejetees(rapport.rejetees)
+                .conflits(rapport.conflits)
+                .conflitsTronques(rapport.rejetees > rapport.conflits.size())
+                .dureeMs(dureeNanos / 1_000_000)
+                .lignesParSeconde(rapport.lignes * 1_000_000_000.0 / dureeNanos)
+                .build();
+    }
+
+    private void ecrire(List<Ligne> lot, MiseAJour miseAJour, Rapport rapport) {
+        try {
+            compter(ecriture.execute(s -> ecrireLot(lot, miseAJour)), rapport);
+        } catch (DataAccessException e) {
+            // valeur trop longue, ICE inséré entre-temps par un autre appel... : on isole la ou les lignes fautives
+            for (Ligne ligne : lot) {
+                try {
+                    compter(ecriture.execute(s -> ecrireLot(List.of(ligne), miseAJour)), rapport);
+                } catch (DataAccessException refus) {
+                    rapport.rejeter(ligne.numero(), ligne.fournisseur().getICE(),
+                            "Refusée par la base : " + refus.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private static void compter(int[] resultat, Rapport rapport) {
+        rapport.crees += resultat[0];
+        rapport.misAJour += resultat[1];
+    }
+
+    // {créés, mis à jour}, lus dans le résultat des écritures elles-mêmes (pas de lecture préalable
+    // qu'un import concurrent pourrait rendre fausse)
+    private int[] ecrireLot(List<Ligne> lot, MiseAJour miseAJour) {
+        if (dialecteSql.estPostgres()) {
+            // un seul INSERT multi-lignes par lot : RETURNING renvoie une ligne par fournisseur écrit
+            String sql = String.format(SQL_UPSERT_POSTGRES,
+                    String.join(", ", Collections.nCopies(lot.size(), VALEURS_UPSERT)), miseAJour.affectationsPostgres());
+            Object[] valeurs = lot.stream().flatMap(l -> Arrays.stream(parametres(l.fournisseur()))).toArray();
+            List<Boolean> inseres = jdbcTemplate.queryForList(sql, Boolean.class, valeurs);
+            int crees = (int) inseres.stream().filter(Boolean::booleanValue).count();
+            return new int[]{crees, inseres.size() - crees};
+        }
+
+        // mise à jour d'abord : les ICE qu'elle n'a pas trouvés sont insérés ; si un autre import les insère
+        // entre-temps, la contrainte d'unicité fait échouer le lot, rejoué ligne par ligne par ecrire()
+        int[] majs = jdbcTemplate.batchUpdate(String.format(SQL_MAJ, miseAJour.affectations()), lot.stream()
+                .map(l -> parametresMaj(l.fournisseur(), miseAJour))
+                .toList());
+        List<Object[]> insertions = new ArrayList<>();
+        for (int i = 0; i < majs.length; i++) {
+            if (majs[i] == 0) {
+                insertions.add(parametres(lot.get(i).fournisseur()));
+            }
+        }
+        if (!insertions.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERTION, insertions);
+        }
+        return new int[]{insertions.size(), lot.size() - insertions.size()};
+    }
+
+    // même ordre de colonnes que COLONNES pour l'insertion et l'upsert
+    private static Object[] parametres(FournisseurDTO f) {
+        return new Object[]{f.getSociete(), f.getAdresse(), f.getContact(), f.getEmail(), f.getTelephone(), f.getVille(), f.getICE()};
+    }
+
+    // colonnes mises à jour dans l'ordre de miseAJour, puis l'ICE qui sert de clé au UPDATE
+    private static Object[] parametresMaj(FournisseurDTO f, MiseAJour miseAJour) {
+        Object[] tous = parametres(f);
+        Object[] valeurs = new Object[miseAJour.colonnes().length + 1];
+        for (int i = 0; i < miseAJour.colonnes().length; i++) {
+            valeurs[i] = tous[miseAJour.colonnes()[i]];
+        }
+        valeurs[valeurs.length - 1] = f.getICE();
+        return valeurs;
+    }
+
+    // colonnes présentes (position >= 0), hors ICE qui ne change jamais
+    private static MiseAJour miseAJour(int[] positions) {
+        int[] colonnes = IntStream.range(0, COLONNES.size())
+                .filter(i -> i != ICE && positions[i] >= 0)
+                .toArray();
+        StringJoiner affectations = new StringJoiner(", ");
+        StringJoiner affectationsPostgres = new StringJoiner(", ");
+        for (int i : colonnes) {
+            affectations.add(COLONNES.get(i) + " = ?");
+            affectationsPostgres.add(COLONNES.get(i) + " = EXCLUDED." + COLONNES.get(i));
+        }
+        return new MiseAJour(colonnes, affectations.toString(), affectationsPostgres.toString());
+    }
+
+    // position de chaque colonne attendue dans l'en-tête (-1 si absente)
+    private static int[] entete(List<String> champs) {
+        int[] positions = new int[COLONNES.size()];
+        for (int i = 0; i < COLONNES.size(); i++) {
+            positions[i] = -1;
+            for (int j = 0; j < champs.size(); j++) {
+                if (champs.get(j).trim().equalsIgnoreCase(COLONNES.get(i))) {
+                    positions[i] = j;
+                }
+            }
+        }
+        if (positions[ICE] < 0 || positions[COLONNES.indexOf("societe")] < 0) {
+            throw new RuntimeException("En-tête CSV invalide : les colonnes societe et ice sont obligatoires");
+        }
+        return positions;
+    }
+
+    private static FournisseurDTO depuisCsv(List<String> champs, int[] positions) {
+        String[] valeurs = new String[COLONNES.size()];
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] >= 0 && positions[i] < champs.size() && !champs.get(positions[i]).isEmpty()) {
+                valeurs[i] = champs.get(positions[i]);
+            }
+        }
+        return FournisseurDTO.builder()
+                .societe(valeurs[0]).adresse(valeurs[1]).contact(valeurs[2]).email(valeurs[3])
+                .telephone(valeurs[4]).ville(valeurs[5]).ICE(valeurs[6])
+                .build();
+    }
+
+    // Découpage d'une ligne CSV : champs entre guillemets, "" pour un guillemet (pas de retour à la ligne dans un champ)
+    static List<String> champs(String ligne, char separateur) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder courant = new StringBuilder();
+        boolean guillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (guillemets) {
+                if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    courant.append('"');
+                    i++;
+                } else if (c == '"') {
+                    guillemets = false;
+                } else {
+                    courant.append(c);
+                }
+            } else if (c == '"') {
+                guillemets = true;
+            } else if (c == separateur) {
+                champs.add(courant.toString());
+                courant.setLength(0);
+            } else {
+                courant.append(c);
+            }
+        }
+        champs.add(courant.toString());
+        return champs;
+    }
+}
@@ -1,22 +1,35 @@
 package com.tricol.service;
 
 import com.tricol.dto.FournisseurDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
 import com.tricol.mapper.FournisseurMapper;
 import com.tricol.model.Fournisseur;
+import com.tricol.repository.ChargementMultiple;
 import com.tricol.repository.FournisseurRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class FournisseurService {
 
     private final FournisseurRepository fournisseurRepository;
     private final FournisseurMapper fournisseurMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChargementMultiple chargementMultiple;
+    private final FournisseurSuppressionService fournisseurSuppressionService;
 
     public Page<FournisseurDTO> getAllFournisseurs(int page,int nbrElement) {
         // Ensure valid paging params
@@ -34,12 +47,22 @@ public class FournisseurService {
         return fournisseurMapper.toDTO(fournisseur);
     }
 
+    // Plusieurs fournisseurs par ids en une requête IN (découpée pour les très grands ensembles)
+    public List<FournisseurDTO> getFournisseursByIds(Collection<Integer> ids) {
+        return chargementMultiple.charger(Fournisseur.class, ids).stream()
+                .map(fournisseurMapper::toDTO)
+                .toList();
+    }
+
+    @Transactional
     public FournisseurDTO createFournisseur(FournisseurDTO fournisseurDTO) {
         Fournisseur fournisseur = fournisseurMapper.toEntity(fournisseurDTO);
         Fournisseur saved = fournisseurRepository.save(fournisseur);
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.FOURNISSEUR, saved.getId()));
         return fournisseurMapper.toDTO(saved);
     }
 
+    @Transactional
     public FournisseurDTO updateFournisseur(int id, FournisseurDTO fournisseurDTO) {
         Fournisseur existing = fournisseurRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Fournisseur non trouvé avec id : " + id));
@@ -54,10 +77,14 @@ public class FournisseurService {
         existing.setICE(fournisseurDTO.getICE());
 
         Fournisseur updated = fournisseurRepository.save(existing);
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.FOURNISSEUR, id));
         return fournisseurMapper.toDTO(updated);
     }
 
+    // Hors transaction : la suppression en masse valide chaque tranche de commandes séparément
+    // (plus de chargement des commandes par la cascade JPA)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteFournisseur(int id) {
-        fournisseurRepository.deleteById(id);
+        fournisseurSuppressionService.supprimer(id);
     }
 }
@@ -0,0 +1,86 @@
+package com.tricol.service;
+
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class FournisseurSuppressionService {
+
+    private static final String SQL_COMMANDES =
+            "SELECT id FROM commandes WHERE id_fournisseur = ? ORDER BY id LIMIT ?";
+    // ordre des dépendances : mouvements et lignes référencent la commande, qui référence le fournisseur
+    private static final String SQL_SUPPRIMER_MOUVEMENTS =
+            "DELETE FROM mouvements_stock WHERE id_commande IN (:ids)";
+    private static final String SQL_SUPPRIMER_LIGNES =
+            "DELETE FROM commandes_lignes WHERE id_commande IN (:ids)";
+    private static final String SQL_SUPPRIMER_COMMANDES =
+            "DELETE FROM commandes WHERE id IN (:ids)";
+    private static final String SQL_SUPPRIMER_FOURNISSEUR =
+            "DELETE FROM fournisseur WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate ecriture;
+    private final ReservationService reservationService;
+    private final int tailleLot;
+
+    public FournisseurSuppressionService(JdbcTemplate jdbcTemplate,
+                                         ApplicationEventPublisher eventPublisher,
+                                         PlatformTransactionManager transactionManager,
+                                         ReservationService reservationService,
+                                         @Value("${tricol.suppression.taille-lot:1000}") int tailleLot) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.reservationService = reservationService;
+        this.ecriture = new TransactionTemplate(transactionManager);
+        this.tailleLot = tailleLot;
+    }
+
+    // Supprime un fournisseur et tout ce qui dépend de ses commandes sans rien charger en mémoire :
+    // par tranches de "taille-lot" commandes, chacune dans sa propre transaction courte (réservations,
+    // mouvements, lignes puis commandes), le fournisseur en dernier. Interrompue, elle peut être relancée :
+    // les tranches déjà validées ne sont plus là. Renvoie le nombre de commandes supprimées.
+    public long supprimer(int fournisseurId) {
+        long debut = System.nanoTime();
+        long commandes = 0;
+        List<Integer> ids;
+        do {
+            ids = jdbcTemplate.queryForList(SQL_COMMANDES, Integer.class, fournisseurId, tailleLot);
+            if (!ids.isEmpty()) {
+                Map<String, List<Integer>> parametres = Map.of("ids", ids);
+                ecriture.executeWithoutResult(s -> {
+                    // commandes validées : leur stock réservé est rendu au disponible
+                    reservationService.liberer(parametres.get("ids"));
+                    namedJdbcTemplate.update(SQL_SUPPRIMER_MOUVEMENTS, parametres);
+                    namedJdbcTemplate.update(SQL_SUPPRIMER_LIGNES, parametres);
+                    namedJdbcTemplate.update(SQL_SUPPRIMER_COMMANDES, parametres);
+                });
+                commandes += ids.size();
+            }
+        } while (ids.size() == tailleLot);
+
+        ecriture.executeWithoutResult(s -> jdbcTemplate.update(SQL_SUPPRIMER_FOURNISSEUR, fournisseurId));
+
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.FOURNISSEUR, fournisseurId));
+        if (commandes > 0) {
+            eventPublisher.publishEvent(EntiteModifieeEvent.tout(TypeEntite.COMMANDE));
+        }
+        log.info("Fournisseur {} supprimé avec {} commande(s) en {} ms", fournisseurId, commandes,
+                (System.nanoTime() - debut) / 1_000_000);
+        return commandes;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tricol.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tricol.exception.CleIdempotenceReutiliseeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotenceService {
+
+    public static final String ENTETE = "Idempotency-Key";
+
+    // empreinte SHA-256 du corps de la première requête et son résultat (ou son exécution en cours)
+    private record Entree(String empreinte, CompletableFuture<Object> resultat) {
+    }
+
+    private final ObjectMapper objectMapper;
+    // clé -> entrée, LRU borné à "capacite" entrées terminées : une exécution en cours n'est jamais évincée
+    // (sinon un rejeu concurrent relancerait l'action), le store peut donc dépasser temporairement la capacité
+    private final Map<String, Entree> resultats;
+
+    public IdempotenceService(ObjectMapper objectMapper,
+                              @Value("${tricol.idempotence.capacite:10000}") int capacite) {
+        this.objectMapper = objectMapper;
+        this.resultats = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entree> eldest) {
+                // des plus anciennes aux plus récentes, en sautant les exécutions en cours
+                Iterator<Entree> entrees = values().iterator();
+                while (size() > capacite && entrees.hasNext()) {
+                    if (entrees.next().resultat().isDone()) {
+                        entrees.remove();
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    // Exécute l'action une seule fois par clé ; les rejeux de même corps renvoient le résultat mémorisé,
+    // un corps différent sous la même clé est refusé (422)
+    @SuppressWarnings("unchecked")
+    public <T> T executer(String operation, String cle, Object corps, Supplier<T> action) {
+        if (cle == null || cle.isBlank()) {
+            return action.get();
+        }
+        String cleComplete = operation + ":" + cle;
+
+        Entree nouvelle = new Entree(empreinte(corps), new CompletableFuture<>());
+        Entree existante;
+        synchronized (resultats) {
+            existante = resultats.putIfAbsent(cleComplete, nouvelle);
+        }
+
+        // Rejeu : on attend la première exécution (si elle est encore en cours) et on renvoie son résultat
+        if (existante != null) {
+            if (!existante.empreinte().equals(nouvelle.empreinte())) {
+                throw new CleIdempotenceReutiliseeException("Clé " + ENTETE + " '" + cle +
+                        "' déjà utilisée pour une autre requête " + operation);
+            }
+            try {
+                return (T) existante.resultat().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T resultat = action.get();
+            nouvelle.resultat().complete(resultat);
+            return resultat;
+        } catch (Throwable e) {
+            // en cas d'échec (Error comprise) la clé est libérée pour permettre une nouvelle tentative
+            // et les rejeux en attente sont débloqués
+            synchronized (resultats) {
+                resultats.remove(cleComplete, nouvelle);
+            }
+            nouvelle.resultat().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // corps sérialisé en JSON (même forme que la requête reçue) puis haché
+    private String empreinte(Object corps) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(corps)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Corps de requête non sérialisable pour " + ENTETE, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.tricol.service;
+
+import com.tricol.dto.LivraisonLotDTO;
+import com.tricol.dto.LivraisonResultatDTO;
+import com.tricol.enums.StatutCommande;
+import com.tricol.enums.TypeEntite;
+import com.tricol.enums.TypeMouvement;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.event.StockModifieEvent;
+import com.tricol.model.Commande;
+import com.tricol.model.CommandeLigne;
+import com.tricol.model.Produit;
+import com.tricol.repository.CommandeLigneRepository;
+import com.tricol.repository.CommandeRepository;
+import com.tricol.repository.VerrousDistribues;
+import com.tricol.stock.MoteurStock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class LivraisonService {
+
+    // sortie de stock et consommation des réservations du lot ; refusée si le disponible
+    // (stock_actuel - stock_reserve) deviendrait négatif
+    private static final String SQL_DECREMENTER_STOCK =
+            "UPDATE produit SET stock_actuel = stock_actuel - ?, stock_reserve = stock_reserve - ?, version = version + 1 " +
+            "WHERE id = ? AND stock_actuel - stock_reserve >= ?";
+    private static final String SQL_STOCKS =
+            "SELECT id, stock_actuel FROM produit WHERE id IN (%s)";
+    private static final String SQL_INSERER_MOUVEMENT =
+            "INSERT INTO mouvements_stock (id_commande, type_mouvement, quantite, date_mouvement) VALUES (?, ?, ?, ?)";
+
+    private final CommandeRepository commandeRepository;
+    private final CommandeLigneRepository commandeLigneRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MoteurStock moteurStock;
+    private final ReservationService reservationService;
+    private final VerrousDistribues verrousDistribues;
+
+    // Livraison d'un lot de commandes en une seule transaction :
+    // une requête pour les commandes, une pour toutes leurs lignes, puis un UPDATE batché par produit
+    // et un INSERT batché des mouvements. Chaque commande est livrée en tout ou rien.
+    @Transactional
+    public LivraisonLotDTO livrerCommandes(List<Integer> commandeIds) {
+        long debut = System.nanoTime();
+
+        List<Integer> ids = commandeIds.stream().distinct().toList();
+        // entre instances : commandes puis produits du lot verrouillés avant toute lecture de statut ou de stock
+        verrousDistribues.verrouillerCommandes(ids);
+        verrousDistribues.verrouillerProduits(commandeLigneRepository.findProduitIdsByCommandeIdIn(ids));
+        Map<Integer, Commande> commandes = commandeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Commande::getId, Function.identity()));
+        Map<Integer, List<CommandeLigne>> lignesParCommande = commandeLigneRepository.findByCommandeIdIn(ids).stream()
+                .collect(Collectors.groupingBy(l -> l.getCommande().getId()));
+        // réservations posées à la validation, consommées par la livraison
+        Map<Integer, Map<Integer, Integer>> reservations = reservationService.reservations(ids);
+
+        // stock et disponible simulés en mémoire, partagés par toutes les commandes du lot
+        Map<Integer, Integer> stockRestant = new HashMap<>();
+        Map<Integer, Integer> disponibleRestant = new HashMap<>();
+        // décréments de stock et de réservé agrégés par produit (triés par id pour un ordre de verrouillage stable)
+        Map<Integer, Integer> decrements = new TreeMap<>();
+        Map<Integer, Integer> liberations = new TreeMap<>();
+        List<Integer> commandesReservees = new ArrayList<>();
+        Set<Integer> produitsModifies = new TreeSet<>();
+        Map<Integer, Produit> produitsDuLot = new HashMap<>();
+        List<Object[]> mouvements = new ArrayList<>();
+        List<Commande> livrees = new ArrayList<>();
+        List<LivraisonResultatDTO> resultats = new ArrayList<>();
+
+        LocalDate aujourdhui = LocalDate.now();
+        for (Integer id : ids) {
+            Commande commande = commandes.get(id);
+            if (commande == null) {
+                resultats.add(resultat(id, false, "Commande introuvable"));
+                continue;
+            }
+            if (commande.getStatut() == StatutCommande.LIVREE) {
+                resultats.add(resultat(id, true, "Commande déjà livrée"));
+                continue;
+            }
+            if (commande.getStatut() == StatutCommande.ANNULEE) {
+                resultats.add(resultat(id, false, "Commande annulée"));
+                continue;
+            }
+
+            List<CommandeLigne> lignes = lignesParCommande.getOrDefault(id, List.of());
+            Map<Integer, Integer> besoins = new HashMap<>();
+            Map<Integer, Produit> produits = new HashMap<>();
+            for (CommandeLigne ligne : lignes) {
+                besoins.merge(ligne.getProduit().getId(), ligne.getQuantite(), Integer::sum);
+                produits.putIfAbsent(ligne.getProduit().getId(), ligne.getProduit());
+                produitsDuLot.putIfAbsent(ligne.getProduit().getId(), ligne.getProduit());
+            }
+
+            Map<Integer, Integer> reservees = reservations.getOrDefault(id, Map.of());
+
+            // vérifier toute la commande avant d'appliquer quoi que ce soit
+            String erreur = moteurStock.actif()
+                    ? retirerParMoteur(besoins, produits, stockRestant)
+                    : verifier(besoins, reservees, produits, disponibleRestant);
+            if (erreur != null) {
+                resultats.add(resultat(id, false, erreur));
+                continue;
+            }
+
+            if (!moteurStock.actif()) {
+                besoins.forEach((produitId, quantite) -> {
+                    stockRestant.put(produitId, stockRestant.getOrDefault(produitId, produits.get(produitId).getStockActuel()) - quantite);
+                    decrements.merge(produitId, quantite, Integer::sum);
+                    disponibleRestant.merge(produitId, reservees.getOrDefault(produitId, 0) - quantite, Integer::sum);
+                });
+            }
+            // toute la réservation de la commande est rendue, même la part que les lignes n'utilisent plus
+            reservees.forEach((produitId, quantite) -> liberations.merge(produitId, quantite, Integer::sum));
+            if (!reservees.isEmpty()) {
+                commandesReservees.add(id);
+            }
+            produitsModifies.addAll(besoins.keySet());
+            produitsModifies.addAll(reservees.keySet());
+            int totalQuantite = lignes.stream().mapToInt(CommandeLigne::getQuantite).sum();
+            mouvements.add(new Object[]{id, TypeMouvement.ENTREE.name(), totalQuantite, aujourdhui});
+
+            commande.setStatut(StatutCommande.LIVREE);
+            livrees.add(commande);
+            resultats.add(resultat(id, true, "Commande livrée"));
+        }
+
+        Set<Integer> produitsEcrits = new TreeSet<>(decrements.keySet());
+        produitsEcrits.addAll(liberations.keySet());
+        if (!produitsEcrits.isEmpty()) {
+            List<Object[]> parametres = produitsEcrits.stream()
+                    .map(produitId -> {
+                        int sortie = decrements.getOrDefault(produitId, 0);
+                        int libere = liberations.getOrDefault(produitId, 0);
+                        return new Object[]{sortie, libere, produitId, sortie - libere};
+                    })
+                    .toList();
+            int[] lignesModifiees = jdbcTemplate.batchUpdate(SQL_DECREMENTER_STOCK, parametres);
+            for (int n : lignesModifiees) {
+                // le stock a changé entre la lecture et l'écriture : on annule tout le lot
+                if (n == 0) {
+                    throw new RuntimeException("Stock modifié pendant la livraison du lot, veuillez réessayer");
+                }
+            }
+            // stock réellement écrit (il a pu bouger depuis la lecture du lot), relu sous les verrous de ligne
+            // de l'UPDATE : c'est lui qu'on publie aux abonnés SSE et à l'index d'alertes
+            if (!decrements.isEmpty()) {
+                stockRestant.putAll(stocksActuels(decrements.keySet()));
+            }
+        }
+        reservationService.supprimer(commandesReservees);
+        if (!mouvements.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERER_MOUVEMENT, mouvements);
+        }
+        commandeRepository.saveAll(livrees);
+        produitsModifies.forEach(id -> {
+            eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, id));
+            Produit produit = produitsDuLot.get(id);
+            if (produit != null && stockRestant.containsKey(id)) {
+                eventPublisher.publishEvent(new StockModifieEvent(id, produit.getNom(), stockRestant.get(id), produit.getSeuilAlerte()));
+            }
+        });
+        livrees.forEach(c -> eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.COMMANDE, c.getId())));
+
+        long dureeNanos = Math.max(1, System.nanoTime() - debut);
+        return LivraisonLotDTO.builder()
+                .resultats(resultats)
+                .livrees(livrees.size())
+                .echecs((int) resultats.stream().filter(r -> !r.isSucces()).count())
+                .dureeMs(dureeNanos / 1_000_000)
+                .commandesParSeconde(livrees.size() * 1_000_000_000.0 / dureeNanos)
+                .build();
+    }
+
+    private Map<Integer, Integer> stocksActuels(Collection<Integer> produitIds) {
+        Map<Integer, Integer> stocks = new HashMap<>();
+        jdbcTemplate.query(String.format(SQL_STOCKS, String.join(", ", Collections.nCopies(produitIds.size(), "?"))),
+                (RowCallbackHandler) rs -> stocks.put(rs.getInt(1), rs.getInt(2)), produitIds.toArray());
+        return stocks;
+    }
+
+    // La part couverte par la réservation de la commande est acquise, le reste doit être disponible.
+    // Renvoie le message d'erreur ou null.
+    private String verifier(Map<Integer, Integer> besoins, Map<Integer, Integer> reservees,
+                            Map<Integer, Produit> produits, Map<Integer, Integer> disponibleRestant) {
+        for (Map.Entry<Integer, Integer> besoin : besoins.entrySet()) {
+            Produit produit = produits.get(besoin.getKey());
+            int disponible = disponibleRestant.computeIfAbsent(produit.getId(), k -> produit.getStockActuel() - produit.getStockReserve());
+            int couvert = Math.min(besoin.getValue(), reservees.getOrDefault(produit.getId(), 0));
+            if (disponible < besoin.getValue() - couvert) {
+                return "Stock insuffisant pour le produit '" + produit.getNom() +
+                        "'. Quantité demandée : " + besoin.getValue() +
+                        ", stock disponible : " + disponible;
+            }
+        }
+        return null;
+    }
+
+    // Moteur de stock actif : retrait tout-ou-rien de la commande, enregistré avec la transaction du lot
+    // (report en base différé), rendu au stock si la transaction du lot est annulée
+    private String retirerParMoteur(Map<Integer, Integer> besoins, Map<Integer, Produit> produits, Map<Integer, Integer> stockRestant) {
+        OptionalInt manque = moteurStock.retirerDansTransaction(besoins);
+        if (manque.isPresent()) {
+            int produitId = manque.getAsInt();
+            return "Stock insuffisant pour le produit '" + produits.get(produitId).getNom() +
+                    "'. Quantité demandée : " + besoins.get(produitId) +
+                    ", stock actuel : " + moteurStock.stock(produitId);
+        }
+        besoins.keySet().forEach(produitId -> stockRestant.put(produitId, moteurStock.stock(produitId)));
+        return null;
+    }
+
+    private LivraisonResultatDTO resultat(int commandeId, boolean succes, String message) {
+        return LivraisonResultatDTO.builder()
+                .commandeId(commandeId)
+                .succes(succes)
+                .message(message)
+                .build();
+    }
+}
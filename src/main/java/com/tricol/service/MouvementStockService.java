@@ -10,11 +10,13 @@ import com.tricol.repository.MouvementStockRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class MouvementStockService {
 
     private final MouvementStockRepository mouvementStockRepository;
@@ -26,13 +28,8 @@ public class MouvementStockService {
     public Page<MouvementStockDTO> getAll(int page, int size){
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
         Page<MouvementStock> mouvements = mouvementStockRepository.findAll(pageable);
-        Page<MouvementStockDTO> dto = mouvements.map(mouvementStockMapper::toDTO);
-        for (MouvementStockDTO msdto : dto ){
-            for (MouvementStock ms : mouvements ){
-                msdto.setCommandeId(ms.getCommande().getId());
-            }
-        }
-        return dto;
+        // le mapper renseigne commandeId ; Page.map matérialise les DTO dans la transaction
+        return mouvements.map(mouvementStockMapper::toDTO);
     }
 
     // GET by ID
@@ -43,6 +40,7 @@ public class MouvementStockService {
     }
 
     // CREATE
+    @Transactional
     public MouvementStockDTO create(MouvementStockDTO dto){
 
         // Récupérer la commande
@@ -73,6 +71,7 @@ public class MouvementStockService {
     }
 
     // UPDATE
+    @Transactional
     public MouvementStockDTO update(int id, MouvementStockDTO dto){
         MouvementStock mouvement = mouvementStockRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("mouvementStock not found"));
@@ -105,6 +104,7 @@ public class MouvementStockService {
     }
 
     // DELETE
+    @Transactional
     public void delete(int id){
         mouvementStockRepository.deleteById(id);
     }
@@ -1,25 +1,40 @@
 package com.tricol.service;
 
+import com.tricol.dto.DisponibiliteDTO;
 import com.tricol.dto.ProduitDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.event.StockModifieEvent;
 import com.tricol.mapper.ProduitMapper;
 import com.tricol.model.Produit;
+import com.tricol.repository.ChargementMultiple;
 import com.tricol.repository.ProduitRepository;
+import com.tricol.stock.MoteurStock;
+import com.tricol.util.Montants;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ProduitService {
 
     private final ProduitRepository produitRepository;
     private final ProduitMapper produitMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChargementMultiple chargementMultiple;
+    private final MoteurStock moteurStock;
 
     public Page<ProduitDTO> getAllProduits(int page,int nbrElement) {
         if (page < 0) page = 0;
@@ -32,9 +47,38 @@ public class ProduitService {
     public ProduitDTO getProduitById(int id) {
         Produit produit = produitRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Produit non trouvé avec id : " + id));
-        return produitMapper.toDTO(produit);
+        ProduitDTO dto = produitMapper.toDTO(produit);
+        // le moteur de stock (s'il est actif) est en avance sur la base d'au plus un intervalle de vidage
+        Integer stock = moteurStock.stockEnMemoire(id);
+        if (stock != null) {
+            dto.setStockActuel(stock);
+        }
+        return dto;
+    }
+
+    // Disponible à la vente : compteurs tenus à jour par les réservations, une seule ligne lue
+    public DisponibiliteDTO getDisponibilite(int id) {
+        Produit produit = produitRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Produit non trouvé avec id : " + id));
+        Integer enMemoire = moteurStock.stockEnMemoire(id);
+        int stock = enMemoire != null ? enMemoire : produit.getStockActuel();
+        return DisponibiliteDTO.builder()
+                .produitId(id)
+                .nom(produit.getNom())
+                .stockActuel(stock)
+                .stockReserve(produit.getStockReserve())
+                .disponible(stock - produit.getStockReserve())
+                .build();
     }
 
+    // Plusieurs produits par ids en une requête IN (découpée pour les très grands ensembles)
+    public List<ProduitDTO> getProduitsByIds(Collection<Integer> ids) {
+        return chargementMultiple.charger(Produit.class, ids).stream()
+                .map(produitMapper::toDTO)
+                .toList();
+    }
+
+    @Transactional
     public ProduitDTO createProduit(ProduitDTO produitDTO) {
 
         // vérifier si produit existe déjà
@@ -44,7 +88,7 @@ public class ProduitService {
 
         if (existing != null) {
             // => deuxième entrée
-            double newCump = calculerCUMP(
+            BigDecimal newCump = calculerCUMP(
                     existing.getCoutMoyenUnitaire(),
                     existing.getStockActuel(),
                     produitDTO.getPrixUnitaire(),
@@ -54,6 +98,9 @@ public class ProduitService {
             existing.setCoutMoyenUnitaire(newCump);
             existing.setStockActuel(existing.getStockActuel() + produitDTO.getStockActuel());
             existing.setPrixUnitaire(produitDTO.getPrixUnitaire()); // tu peux stocker le dernier
+            if (produitDTO.getSeuilAlerte() != null) {
+                existing.setSeuilAlerte(produitDTO.getSeuilAlerte());
+            }
 
             produit = existing;
 
@@ -64,10 +111,14 @@ public class ProduitService {
         }
 
         Produit saved = produitRepository.save(produit);
+        moteurStock.resynchroniserApresCommit(List.of(saved.getId()));
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, saved.getId()));
+        eventPublisher.publishEvent(new StockModifieEvent(saved.getId(), saved.getNom(), saved.getStockActuel(), saved.getSeuilAlerte()));
         return produitMapper.toDTO(saved);
     }
 
 
+    @Transactional
     public ProduitDTO updateProduit(int id, ProduitDTO produitDTO) {
         Produit existing = produitRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Produit non trouvé avec id : " + id));
@@ -78,25 +129,50 @@ public class ProduitService {
         existing.setPrixUnitaire(produitDTO.getPrixUnitaire());
         existing.setCategorie(produitDTO.getCategorie());
         existing.setStockActuel(produitDTO.getStockActuel());
+        // seuil absent de la requête : on garde celui en place, comme à la création
+        // (pour le retirer : DELETE /api/produits/{id}/seuil-alerte, voir supprimerSeuilAlerte)
+        if (produitDTO.getSeuilAlerte() != null) {
+            existing.setSeuilAlerte(produitDTO.getSeuilAlerte());
+        }
+
+        Produit updated = produitRepository.save(existing);
+        moteurStock.resynchroniserApresCommit(List.of(id));
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, id));
+        eventPublisher.publishEvent(new StockModifieEvent(id, updated.getNom(), updated.getStockActuel(), updated.getSeuilAlerte()));
+        return produitMapper.toDTO(updated);
+    }
+
+    // Retrait explicite du seuil d'alerte (un seuil absent dans updateProduit veut dire "inchangé")
+    @Transactional
+    public ProduitDTO supprimerSeuilAlerte(int id) {
+        Produit existing = produitRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Produit non trouvé avec id : " + id));
+
+        existing.setSeuilAlerte(null);
 
         Produit updated = produitRepository.save(existing);
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, id));
+        // seuil nul : l'index des alertes retire le produit
+        eventPublisher.publishEvent(new StockModifieEvent(id, updated.getNom(), updated.getStockActuel(), null));
         return produitMapper.toDTO(updated);
     }
 
+    @Transactional
     public void deleteProduit(int id) {
         produitRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, id));
     }
 
     //Méthode pour le calucl de cump
-    private double calculerCUMP(double ancienCUMP, int ancienStock,
-                                double nouveauPrix, int nouvelleQuantite) {
+    private BigDecimal calculerCUMP(BigDecimal ancienCUMP, int ancienStock,
+                                    BigDecimal nouveauPrix, int nouvelleQuantite) {
 
         if (ancienStock == 0) return nouveauPrix;
-        double result=((ancienStock * ancienCUMP) + (nouvelleQuantite * nouveauPrix)) / (ancienStock + nouvelleQuantite );
-
-        return result;
-
+        // calcul exact en centimes, arrondi au centime comme la colonne DECIMAL(10,2)
+        long result = Montants.cump(Montants.versCentimes(ancienCUMP), ancienStock,
+                Montants.versCentimes(nouveauPrix), nouvelleQuantite);
 
+        return Montants.versDecimal(result);
     }
 
 
@@ -0,0 +1,179 @@
+package com.tricol.service;
+
+import com.tricol.dto.ProduitDTO;
+import com.tricol.dto.ReceptionLotDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.event.StockModifieEvent;
+import com.tricol.repository.DialecteSql;
+import com.tricol.stock.MoteurStock;
+import com.tricol.util.Montants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+@Slf4j
+@Service
+public class ReceptionService {
+
+    // Fusion en une instruction : même règle que ProduitService.calculerCUMP
+    // (stock précédent nul => prix reçu, sinon moyenne pondérée arrondie au centime, HALF_UP comme ROUND sur NUMERIC).
+    // Les expressions du SET voient toutes l'ancienne ligne.
+    // H2 n'accepte pas ON CONFLICT ... DO UPDATE : ce chemin n'est testé que contre PostgreSQL
+    // (ReceptionServiceTest, voir testReceptionner_FusionPostgres_MemeResultatQueCreateProduit).
+    private static final String SQL_FUSION_POSTGRES =
+            "INSERT INTO produit (nom, description, prix_unitaire, categorie, stock_actuel, seuil_alerte, cout_moyen_unitaire, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON CONFLICT (nom) DO UPDATE SET " +
+            "cout_moyen_unitaire = CASE WHEN produit.stock_actuel = 0 OR produit.stock_actuel + EXCLUDED.stock_actuel = 0 " +
+            "THEN EXCLUDED.prix_unitaire " +
+            "ELSE ROUND((COALESCE(produit.cout_moyen_unitaire, 0) * produit.stock_actuel + EXCLUDED.prix_unitaire * EXCLUDED.stock_actuel) " +
+            "/ (produit.stock_actuel + EXCLUDED.stock_actuel), 2) END, " +
+            "stock_actuel = produit.stock_actuel + EXCLUDED.stock_actuel, " +
+            "prix_unitaire = EXCLUDED.prix_unitaire, " +
+            "seuil_alerte = COALESCE(EXCLUDED.seuil_alerte, produit.seuil_alerte), " +
+            "version = produit.version + 1";
+
+    // Équivalent batché pour les autres bases : lecture verrouillée des existants, CUMP calculé en centimes,
+    // puis un UPDATE et un INSERT batchés
+    private static final String SQL_EXISTANTS =
+            "SELECT id, nom, stock_actuel, cout_moyen_unitaire FROM produit WHERE nom IN (:noms) FOR UPDATE";
+    private static final String SQL_MAJ =
+            "UPDATE produit SET cout_moyen_unitaire = ?, stock_actuel = ?, prix_unitaire = ?, " +
+            "seuil_alerte = COALESCE(?, seuil_alerte), version = version + 1 WHERE id = ?";
+    private static final String SQL_INSERTION =
+            "INSERT INTO produit (nom, description, prix_unitaire, categorie, stock_actuel, seuil_alerte, cout_moyen_unitaire, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String SQL_RELECTURE =
+            "SELECT id, nom, stock_actuel, seuil_alerte FROM produit WHERE nom IN (:noms)";
+
+    private static final int TAILLE_IN = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DialecteSql dialecteSql;
+    private final MoteurStock moteurStock;
+
+    public ReceptionService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, DialecteSql dialecteSql,
+                            MoteurStock moteurStock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.dialecteSql = dialecteSql;
+        this.moteurStock = moteurStock;
+    }
+
+    // Réception d'un bordereau complet en une transaction. Un même nom peut apparaître plusieurs fois :
+    // la n-ième occurrence part dans la n-ième passe, ce qui reproduit exactement l'enchaînement
+    // des appels createProduit dans l'ordre du bordereau (une instruction ne touche jamais deux fois la même ligne).
+    @Transactional
+    public ReceptionLotDTO receptionner(List<ProduitDTO> bordereau) {
+        long debut = System.nanoTime();
+
+        List<List<ProduitDTO>> passes = new ArrayList<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (int i = 0; i < bordereau.size(); i++) {
+            ProduitDTO ligne = bordereau.get(i);
+            if (ligne.getNom() == null || ligne.getNom().isBlank()) {
+                throw new RuntimeException("Ligne " + (i + 1) + " du bordereau : nom du produit obligatoire");
+            }
+            if (ligne.getPrixUnitaire() == null) {
+                throw new RuntimeException("Ligne " + (i + 1) + " du bordereau : prix unitaire obligatoire pour '" + ligne.getNom() + "'");
+            }
+            int passe = occurrences.merge(ligne.getNom(), 1, Integer::sum) - 1;
+            if (passe == passes.size()) {
+                passes.add(new ArrayList<>());
+            }
+            passes.get(passe).add(ligne);
+        }
+
+        boolean fusionSql = dialecteSql.estPostgres();
+        for (List<ProduitDTO> passe : passes) {
+            if (fusionSql) {
+                fusionnerPostgres(passe);
+            } else {
+                fusionnerParLots(passe);
+            }
+        }
+
+        publierStocks(occurrences.keySet());
+
+        log.debug("Bordereau de {} ligne(s), {} produit(s), {} passe(s) fusionné en {} ms",
+                bordereau.size(), occurrences.size(), passes.size(), (System.nanoTime() - debut) / 1_000_000);
+        return ReceptionLotDTO.builder()
+                .lignes(bordereau.size())
+                .produits(occurrences.size())
+                .passes(passes.size())
+                .build();
+    }
+
+    private void fusionnerPostgres(List<ProduitDTO> passe) {
+        List<Object[]> parametres = passe.stream()
+                .map(l -> new Object[]{l.getNom(), l.getDescription(), l.getPrixUnitaire(), l.getCategorie(),
+                        l.getStockActuel(), l.getSeuilAlerte(), l.getPrixUnitaire()})
+                .toList();
+        jdbcTemplate.batchUpdate(SQL_FUSION_POSTGRES, parametres);
+    }
+
+    private void fusionnerParLots(List<ProduitDTO> passe) {
+        for (int debut = 0; debut < passe.size(); debut += TAILLE_IN) {
+            List<ProduitDTO> lot = passe.subList(debut, Math.min(passe.size(), debut + TAILLE_IN));
+
+            Map<String, Object[]> existants = new HashMap<>();
+            namedJdbcTemplate.query(SQL_EXISTANTS, Map.of("noms", lot.stream().map(ProduitDTO::getNom).toList()),
+                    rs -> {
+                        existants.put(rs.getString("nom"), new Object[]{
+                                rs.getInt("id"), rs.getInt("stock_actuel"), rs.getBigDecimal("cout_moyen_unitaire")});
+                    });
+
+            List<Object[]> majs = new ArrayList<>();
+            List<Object[]> insertions = new ArrayList<>();
+            for (ProduitDTO ligne : lot) {
+                Object[] existant = existants.get(ligne.getNom());
+                if (existant == null) {
+                    insertions.add(new Object[]{ligne.getNom(), ligne.getDescription(), ligne.getPrixUnitaire(),
+                            ligne.getCategorie(), ligne.getStockActuel(), ligne.getSeuilAlerte(), ligne.getPrixUnitaire()});
+                    continue;
+                }
+                int ancienStock = (Integer) existant[1];
+                BigDecimal cump = ancienStock == 0 ? ligne.getPrixUnitaire()
+                        : Montants.versDecimal(Montants.cump(Montants.versCentimes((BigDecimal) existant[2]), ancienStock,
+                                Montants.versCentimes(ligne.getPrixUnitaire()), ligne.getStockActuel()));
+                majs.add(new Object[]{cump, ancienStock + ligne.getStockActuel(), ligne.getPrixUnitaire(),
+                        ligne.getSeuilAlerte(), existant[0]});
+            }
+            if (!majs.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_MAJ, majs);
+            }
+            if (!insertions.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_INSERTION, insertions);
+            }
+        }
+    }
+
+    // Relit id et stock final des produits reçus pour les alertes et le flux SSE
+    private void publierStocks(Collection<String> noms) {
+        List<String> liste = new ArrayList<>(noms);
+        List<Integer> ids = new ArrayList<>(liste.size());
+        for (int debut = 0; debut < liste.size(); debut += TAILLE_IN) {
+            namedJdbcTemplate.query(SQL_RELECTURE, Map.of("noms", liste.subList(debut, Math.min(liste.size(), debut + TAILLE_IN))),
+                    rs -> {
+                        ids.add(rs.getInt("id"));
+                        eventPublisher.publishEvent(new StockModifieEvent(rs.getInt("id"), rs.getString("nom"),
+                                rs.getInt("stock_actuel"), (Integer) rs.getObject("seuil_alerte")));
+                    });
+        }
+        // stock écrit directement en base : les compteurs du moteur (s'il est actif) sont recalés après validation
+        moteurStock.resynchroniserApresCommit(ids);
+        // un bordereau touche potentiellement tout le catalogue : une seule invalidation globale
+        eventPublisher.publishEvent(EntiteModifieeEvent.tout(TypeEntite.PRODUIT));
+    }
+}
@@ -0,0 +1,135 @@
+package com.tricol.service;
+
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+// Réservations de stock : à la validation d'une commande, ses quantités sont réservées produit par produit
+// (produit.stock_reserve + une ligne par produit dans reservations_stock) ; l'annulation les libère,
+// la livraison les consomme (CommandeService, LivraisonService).
+// Disponible à la vente = stock_actuel - stock_reserve, tenu à jour à chaque écriture : une seule ligne lue par produit.
+// Incompatible avec le moteur de stock (MoteurStock), dont les compteurs en mémoire ignorent stock_reserve et dont
+// les retraits ne sont reportés dans stock_actuel qu'au vidage : activer le moteur impose tricol.reservation.actif=false.
+// Réservations désactivées, la validation ne réserve plus rien ; les réservations existantes restent libérées
+// ou consommées normalement.
+@Service
+@Transactional(readOnly = true)
+public class ReservationService {
+
+    private static final String SQL_BESOINS =
+            "SELECT id_produit, SUM(quantite) FROM commandes_lignes WHERE id_commande = ? GROUP BY id_produit ORDER BY id_produit";
+    private static final String SQL_DEJA_RESERVEE =
+            "SELECT COUNT(*) FROM reservations_stock WHERE id_commande = ?";
+    // réservation conditionnelle : refusée (0 ligne modifiée) si le disponible ne couvre pas la quantité
+    private static final String SQL_RESERVER =
+            "UPDATE produit SET stock_reserve = stock_reserve + ?, version = version + 1 WHERE id = ? AND stock_actuel - stock_reserve >= ?";
+    private static final String SQL_INSERER =
+            "INSERT INTO reservations_stock (id_commande, id_produit, quantite) VALUES (?, ?, ?)";
+    private static final String SQL_DISPONIBLE =
+            "SELECT nom, stock_actuel - stock_reserve FROM produit WHERE id = ?";
+
+    private static final String SQL_RESERVATIONS =
+            "SELECT id_commande, id_produit, quantite FROM reservations_stock WHERE id_commande IN (:ids) ORDER BY id_produit";
+    private static final String SQL_LIBERER =
+            "UPDATE produit SET stock_reserve = stock_reserve - ?, version = version + 1 WHERE id = ?";
+    private static final String SQL_SUPPRIMER =
+            "DELETE FROM reservations_stock WHERE id_commande IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean actif;
+
+    public ReservationService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                              @Value("${tricol.reservation.actif:true}") boolean actif,
+                              @Value("${tricol.stock.moteur.actif:false}") boolean moteurActif) {
+        if (actif && moteurActif) {
+            throw new IllegalStateException("Le moteur de stock (tricol.stock.moteur.actif=true) ne tient pas compte des " +
+                    "réservations : désactiver tricol.reservation.actif pour l'utiliser");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.actif = actif;
+    }
+
+    // Réserve les quantités des lignes de la commande, tout ou rien (sans effet si elle est déjà réservée).
+    // Les produits sont verrouillés dans l'ordre de leurs ids.
+    @Transactional
+    public void reserver(int commandeId) {
+        if (!actif) {
+            return;
+        }
+        if (jdbcTemplate.queryForObject(SQL_DEJA_RESERVEE, Integer.class, commandeId) > 0) {
+            return;
+        }
+        List<Object[]> besoins = jdbcTemplate.query(SQL_BESOINS,
+                (rs, i) -> new Object[]{rs.getInt(1), rs.getInt(2)}, commandeId);
+        for (Object[] besoin : besoins) {
+            int produitId = (Integer) besoin[0];
+            int quantite = (Integer) besoin[1];
+            if (jdbcTemplate.update(SQL_RESERVER, quantite, produitId, quantite) == 0) {
+                // l'exception annule les réservations déjà posées avec la transaction
+                String message = jdbcTemplate.query(SQL_DISPONIBLE, rs -> rs.next()
+                        ? "Stock insuffisant pour réserver le produit '" + rs.getString(1) +
+                                "'. Quantité demandée : " + quantite +
+                                ", stock disponible : " + rs.getInt(2)
+                        : null, produitId);
+                if (message != null) {
+                    throw new RuntimeException(message);
+                }
+                throw new RuntimeException("Produit non trouvé avec id : " + produitId);
+            }
+        }
+        if (!besoins.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERER, besoins.stream()
+                    .map(b -> new Object[]{commandeId, b[0], b[1]})
+                    .toList());
+            besoins.forEach(b -> eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, (Integer) b[0])));
+        }
+    }
+
+    // Libère les réservations des commandes (annulation, suppression) ; renvoie les produits concernés
+    @Transactional
+    public Set<Integer> liberer(Collection<Integer> commandeIds) {
+        Map<Integer, Integer> quantites = new TreeMap<>();
+        reservations(commandeIds).values().forEach(r -> r.forEach((produitId, q) -> quantites.merge(produitId, q, Integer::sum)));
+        if (quantites.isEmpty()) {
+            return Set.of();
+        }
+        jdbcTemplate.batchUpdate(SQL_LIBERER, quantites.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey()})
+                .toList());
+        supprimer(commandeIds);
+        quantites.keySet().forEach(id -> eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, id)));
+        return quantites.keySet();
+    }
+
+    // Quantités réservées par commande puis par produit (commandes sans réservation absentes)
+    public Map<Integer, Map<Integer, Integer>> reservations(Collection<Integer> commandeIds) {
+        Map<Integer, Map<Integer, Integer>> reservations = new HashMap<>();
+        if (commandeIds.isEmpty()) {
+            return reservations;
+        }
+        namedJdbcTemplate.query(SQL_RESERVATIONS, Map.of("ids", commandeIds), rs -> {
+            reservations.computeIfAbsent(rs.getInt(1), k -> new TreeMap<>()).put(rs.getInt(2), rs.getInt(3));
+        });
+        return reservations;
+    }
+
+    // Retire les lignes de réservation sans toucher à produit.stock_reserve :
+    // l'appelant (livraison) décrémente lui-même stock_actuel et stock_reserve
+    @Transactional
+    public void supprimer(Collection<Integer> commandeIds) {
+        if (!commandeIds.isEmpty()) {
+            namedJdbcTemplate.update(SQL_SUPPRIMER, Map.of("ids", commandeIds));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.tricol.service;
+
+import com.tricol.dto.RevalorisationRapportDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.util.Montants;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class RevalorisationCumpService {
+
+    // Lignes d'achat d'une tranche contiguë d'ids produit (servie par idx_commandes_lignes_produit : chaque
+    // partition ne lit et ne trie que ses propres lignes), dans l'ordre chronologique des commandes
+    // (prix lu directement en centimes pour ne pas allouer un BigDecimal par ligne)
+    private static final String SQL_LIGNES =
+            "SELECT l.id_produit, l.quantite, CAST(ROUND(l.prix_achat * 100) AS BIGINT) FROM commandes_lignes l " +
+            "JOIN commandes c ON c.id = l.id_commande " +
+            "WHERE (c.statut IS NULL OR c.statut <> 'ANNULEE') AND l.id_produit BETWEEN ? AND ? " +
+            "ORDER BY c.date_commande, l.id";
+    private static final String SQL_BORNES =
+            "SELECT MIN(id_produit), MAX(id_produit) FROM commandes_lignes";
+    private static final String SQL_MAJ_CUMP =
+            "UPDATE produit SET cout_moyen_unitaire = ?, version = version + 1 WHERE id = ?";
+
+    private static final int TAILLE_FETCH = 10_000;
+    private static final int TAILLE_LOT = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate lecture;
+    private final TransactionTemplate ecriture;
+    private final int parallelisme;
+    private final int partitions;
+    // fil dédié au pilotage du passage : ne bloque pas le pool commun pendant toute la revalorisation
+    private final ExecutorService pilotage = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "revalorisation-cump");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean enCours = new AtomicBoolean();
+    private volatile int partitionsDuPassage;
+    private final AtomicInteger partitionsTerminees = new AtomicInteger();
+    private final AtomicLong lignesTraitees = new AtomicLong();
+    private final AtomicLong produitsMisAJour = new AtomicLong();
+    private volatile long debut;
+    private volatile long fin;
+    private volatile String erreur;
+
+    public RevalorisationCumpService(JdbcTemplate jdbcTemplate,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${tricol.revalorisation.parallelisme:0}") int parallelisme,
+                                     @Value("${tricol.revalorisation.partitions:0}") int partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.lecture = new TransactionTemplate(transactionManager);
+        this.lecture.setReadOnly(true);
+        this.ecriture = new TransactionTemplate(transactionManager);
+        this.parallelisme = parallelisme > 0 ? parallelisme : Runtime.getRuntime().availableProcessors();
+        this.partitions = partitions > 0 ? partitions : this.parallelisme * 4;
+    }
+
+    // Lance la revalorisation en arrière-plan ; renvoie l'état courant si elle tourne déjà
+    public RevalorisationRapportDTO lancer() {
+        if (!enCours.compareAndSet(false, true)) {
+            return etat();
+        }
+        partitionsTerminees.set(0);
+        lignesTraitees.set(0);
+        produitsMisAJour.set(0);
+        erreur = null;
+        partitionsDuPassage = partitions;
+        debut = System.nanoTime();
+        fin = 0;
+
+        pilotage.execute(this::executer);
+        return etat();
+    }
+
+    @PreDestroy
+    void arreter() {
+        pilotage.shutdownNow();
+    }
+
+    public RevalorisationRapportDTO etat() {
+        long finOuMaintenant = fin != 0 ? fin : System.nanoTime();
+        long dureeNanos = debut == 0 ? 0 : Math.max(1, finOuMaintenant - debut);
+        return RevalorisationRapportDTO.builder()
+                .enCours(enCours.get())
+                .partitions(partitionsDuPassage)
+                .partitionsTerminees(partitionsTerminees.get())
+                .lignesTraitees(lignesTraitees.get())
+                .produitsMisAJour(produitsMisAJour.get())
+                .dureeMs(dureeNanos / 1_000_000)
+                .lignesParSeconde(dureeNanos == 0 ? 0 : lignesTraitees.get() * 1_000_000_000.0 / dureeNanos)
+                .erreur(erreur)
+                .build();
+    }
+
+    private void executer() {
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+        try {
+            List<long[]> tranches = tranches();
+            partitionsDuPassage = tranches.size();
+            List<Callable<Void>> taches = new ArrayList<>();
+            for (long[] tranche : tranches) {
+                taches.add(() -> {
+                    revaloriserPartition(tranche[0], tranche[1]);
+                    return null;
+                });
+            }
+            // invokeAll attend toutes les partitions ; get() remonte la première erreur
+            for (var tache : pool.invokeAll(taches)) {
+                tache.get();
+            }
+        } catch (Exception e) {
+            erreur = e.getMessage();
+        } finally {
+            // trop de produits pour les invalider un par un
+            eventPublisher.publishEvent(EntiteModifieeEvent.tout(TypeEntite.PRODUIT));
+            pool.shutdown();
+            fin = System.nanoTime();
+            enCours.set(false);
+        }
+    }
+
+    // Au plus "partitions" tranches d'ids de même largeur couvrant les produits qui ont des lignes d'achat
+    private List<long[]> tranches() {
+        long[] bornes = jdbcTemplate.query(SQL_BORNES, (ResultSetExtractor<long[]>) rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+        List<long[]> tranches = new ArrayList<>();
+        if (bornes == null) {
+            return tranches;
+        }
+        long largeur = Math.max(1, (bornes[1] - bornes[0] + partitions) / partitions);
+        for (long premier = bornes[0]; premier <= bornes[1]; premier += largeur) {
+            tranches.add(new long[]{premier, Math.min(bornes[1], premier + largeur - 1)});
+        }
+        return tranches;
+    }
+
+    // Une partition = les produits d'ids compris entre premier et dernier ; le CUMP de chaque produit
+    // est replié ligne par ligne dans l'ordre des dates, comme le ferait createProduit
+    private void revaloriserPartition(long premier, long dernier) {
+        Repliage repliage = new Repliage();
+
+        lecture.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_LIGNES,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(TAILLE_FETCH);
+            ps.setLong(1, premier);
+            ps.setLong(2, dernier);
+            return ps;
+        }, repliage));
+        lignesTraitees.addAndGet(repliage.compteur);
+
+        List<Object[]> lot = new ArrayList<>(TAILLE_LOT);
+        for (Map.Entry<Integer, long[]> e : repliage.cumpEtStock.entrySet()) {
+            lot.add(new Object[]{Montants.versDecimal(e.getValue()[0]), e.getKey()});
+            if (lot.size() == TAILLE_LOT) {
+                ecrire(lot);
+                lot = new ArrayList<>(TAILLE_LOT);
+            }
+        }
+        if (!lot.isEmpty()) {
+            ecrire(lot);
+        }
+        partitionsTerminees.incrementAndGet();
+    }
+
+    private void ecrire(List<Object[]> lot) {
+        ecriture.executeWithoutResult(status -> jdbcTemplate.batchUpdate(SQL_MAJ_CUMP, lot));
+        produitsMisAJour.addAndGet(lot.size());
+    }
+
+    // produitId -> {cump en centimes, stock cumulé}
+    private class Repliage implements RowCallbackHandler {
+        private final Map<Integer, long[]> cumpEtStock = new HashMap<>();
+        private long compteur;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long[] etat = cumpEtStock.computeIfAbsent(rs.getInt(1), k -> new long[2]);
+            int quantite = rs.getInt(2);
+            etat[0] = Montants.cump(etat[0], etat[1], rs.getLong(3), quantite);
+            etat[1] += quantite;
+
+            // publier la progression par paquets pour ne pas contendre sur le compteur partagé
+            if (++compteur == TAILLE_FETCH) {
+                lignesTraitees.addAndGet(compteur);
+                compteur = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tricol.service;
+
+import com.tricol.event.StockModifieEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Diffusion des changements de stock aux tableaux de bord (SSE).
+// Chaque abonné a sa propre file bornée : les mises à jour d'un même produit y sont fusionnées
+// (seule la dernière valeur est envoyée) et un abonné trop lent pour suivre est déconnecté
+// plutôt que de faire grossir la mémoire ou de ralentir les autres.
+@Service
+public class StockFluxService {
+
+    private final Set<Abonne> abonnes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService envoi;
+    private final int capaciteAbonne;
+    private final long timeoutMs;
+
+    public StockFluxService(@Value("${tricol.stock-flux.threads:4}") int threads,
+                            @Value("${tricol.stock-flux.capacite-abonne:1000}") int capaciteAbonne,
+                            @Value("${tricol.stock-flux.timeout-ms:1800000}") long timeoutMs) {
+        this.envoi = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "stock-flux");
+            t.setDaemon(true);
+            return t;
+        });
+        this.capaciteAbonne = capaciteAbonne;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter abonner() {
+        return abonner(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter abonner(SseEmitter emitter) {
+        Abonne abonne = new Abonne(emitter);
+        abonnes.add(abonne);
+        emitter.onCompletion(() -> abonnes.remove(abonne));
+        emitter.onTimeout(() -> abonnes.remove(abonne));
+        emitter.onError(e -> abonnes.remove(abonne));
+        return emitter;
+    }
+
+    public int nombreAbonnes() {
+        return abonnes.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockModifie(StockModifieEvent event) {
+        for (Abonne abonne : abonnes) {
+            abonne.publier(event);
+        }
+    }
+
+    @PreDestroy
+    void arreter() {
+        envoi.shutdownNow();
+    }
+
+    private class Abonne {
+        private final SseEmitter emitter;
+        // produitId -> dernière valeur non encore envoyée (gardé par this)
+        private final Map<Integer, StockModifieEvent> enAttente = new LinkedHashMap<>();
+        private boolean planifie;
+        private volatile boolean ferme;
+
+        Abonne(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void publier(StockModifieEvent event) {
+            if (ferme) {
+                return;
+            }
+            synchronized (this) {
+                if (enAttente.size() >= capaciteAbonne && !enAttente.containsKey(event.getProduitId())) {
+                    deconnecter();
+                    return;
+                }
+                enAttente.put(event.getProduitId(), event);
+                if (planifie) {
+                    return; // un envoi est déjà en cours : il emportera cette valeur
+                }
+                planifie = true;
+            }
+            envoi.execute(this::vider);
+        }
+
+        // un seul thread vide la file d'un abonné à la fois, donc l'ordre des envois est conservé
+        private void vider() {
+            while (true) {
+                List<StockModifieEvent> lot;
+                synchronized (this) {
+                    if (enAttente.isEmpty()) {
+                        planifie = false;
+                        return;
+                    }
+                    lot = new ArrayList<>(enAttente.values());
+                    enAttente.clear();
+                }
+                try {
+                    emitter.send(SseEmitter.event().name("stock").data(lot, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    deconnecter();
+                    synchronized (this) {
+                        planifie = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private synchronized void deconnecter() {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            abonnes.remove(this);
+            emitter.complete();
+        }
+    }
+}
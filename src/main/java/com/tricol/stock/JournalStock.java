@@ -0,0 +1,217 @@
+package com.tricol.stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Journal des deltas de stock, découpé en segments "stock-<n>.journal" (un par intervalle de vidage).
+// Enregistrement de 12 octets : id produit, delta, CRC32C des 8 premiers octets. Un enregistrement
+// tronqué ou corrompu (arrêt brutal pendant l'écriture) termine la lecture du segment.
+// Écriture groupée : les deltas s'accumulent dans un tampon et le premier appelant qui demande la
+// durabilité écrit et synchronise (force) tout ce qui a été accumulé pour les appelants suivants.
+class JournalStock implements AutoCloseable {
+
+    static final int TAILLE_ENREGISTREMENT = 12;
+
+    // deltas d'un segment fermé, agrégés par produit
+    record Segment(long numero, Map<Integer, Long> deltas) {
+    }
+
+    private final Path dossier;
+    private final Object verrouSynchro = new Object();
+
+    // protégés par "this"
+    private ByteBuffer tampon = ByteBuffer.allocate(64 * 1024);
+    private Map<Integer, Long> deltas = new HashMap<>();
+    private long numero;
+    private long ecrits;
+    private FileChannel canal;
+
+    // écrit sous verrouSynchro, lu sans verrou
+    private volatile long durables;
+
+    JournalStock(Path dossier, long premierSegment) {
+        this.dossier = dossier;
+        try {
+            Files.createDirectories(dossier);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Dossier du journal de stock inaccessible : " + dossier, e);
+        }
+        this.numero = premierSegment;
+        this.canal = ouvrir(premierSegment);
+    }
+
+    // Ajoute un delta au segment courant ; renvoie le ticket à passer à synchroniser()
+    synchronized long ajouter(int produitId, int delta) {
+        if (tampon.remaining() < TAILLE_ENREGISTREMENT) {
+            ByteBuffer plus = ByteBuffer.allocate(tampon.capacity() * 2);
+            tampon.flip();
+            plus.put(tampon);
+            tampon = plus;
+        }
+        tampon.putInt(produitId).putInt(delta).putInt(crc(produitId, delta));
+        deltas.merge(produitId, (long) delta, Long::sum);
+        return ++ecrits;
+    }
+
+    // Rend durables tous les enregistrements jusqu'au ticket (inclus), en une écriture + force
+    // pour tous les appelants en attente
+    void synchroniser(long ticket) {
+        if (durables >= ticket) {
+            return;
+        }
+        synchronized (verrouSynchro) {
+            if (durables >= ticket) {
+                return;
+            }
+            long jusqua;
+            synchronized (this) {
+                ecrire();
+                jusqua = ecrits;
+            }
+            forcer(canal());
+            durables = jusqua;
+        }
+    }
+
+    // Ferme le segment courant (écrit et synchronisé) et en ouvre un nouveau ; renvoie le segment fermé
+    Segment rotation() {
+        synchronized (verrouSynchro) {
+            synchronized (this) {
+                ecrire();
+                forcer(canal);
+                fermer(canal);
+                Segment ferme = new Segment(numero, deltas);
+                durables = ecrits;
+                deltas = new HashMap<>();
+                numero++;
+                canal = ouvrir(numero);
+                return ferme;
+            }
+        }
+    }
+
+    // Segments présents sur disque, dans l'ordre
+    static List<Long> segments(Path dossier) {
+        if (!Files.isDirectory(dossier)) {
+            return List.of();
+        }
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            return fichiers.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("stock-") && n.endsWith(".journal"))
+                    .map(n -> Long.parseLong(n.substring("stock-".length(), n.length() - ".journal".length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Deltas agrégés d'un segment, jusqu'au premier enregistrement incomplet ou invalide
+    static Map<Integer, Long> lire(Path dossier, long segment) {
+        Map<Integer, Long> deltas = new HashMap<>();
+        try {
+            ByteBuffer contenu = ByteBuffer.wrap(Files.readAllBytes(fichier(dossier, segment)));
+            while (contenu.remaining() >= TAILLE_ENREGISTREMENT) {
+                int produitId = contenu.getInt();
+                int delta = contenu.getInt();
+                if (contenu.getInt() != crc(produitId, delta)) {
+                    break;
+                }
+                deltas.merge(produitId, (long) delta, Long::sum);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return deltas;
+    }
+
+    // Supprime les segments déjà reportés en base (numéro <= jusqua)
+    static void supprimer(Path dossier, long jusqua) {
+        for (long segment : segments(dossier)) {
+            if (segment <= jusqua) {
+                try {
+                    Files.deleteIfExists(fichier(dossier, segment));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    Path dossier() {
+        return dossier;
+    }
+
+    @Override
+    public void close() {
+        synchronized (verrouSynchro) {
+            synchronized (this) {
+                ecrire();
+                forcer(canal);
+                fermer(canal);
+            }
+        }
+    }
+
+    private synchronized FileChannel canal() {
+        return canal;
+    }
+
+    // appelé sous "this"
+    private void ecrire() {
+        tampon.flip();
+        try {
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal de stock impossible", e);
+        }
+        tampon.clear();
+    }
+
+    private FileChannel ouvrir(long segment) {
+        try {
+            return FileChannel.open(fichier(dossier, segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ouverture du segment " + segment + " impossible", e);
+        }
+    }
+
+    private static void forcer(FileChannel canal) {
+        try {
+            canal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Synchronisation du journal de stock impossible", e);
+        }
+    }
+
+    private static void fermer(FileChannel canal) {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path fichier(Path dossier, long segment) {
+        return dossier.resolve(String.format("stock-%016d.journal", segment));
+    }
+
+    private static int crc(int produitId, int delta) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putInt(produitId).putInt(delta).array());
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,486 @@
+package com.tricol.stock;
+
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Moteur de stock en mémoire (optionnel, tricol.stock.moteur.actif=true) pour les produits très sollicités :
+// - un compteur par produit, protégé par un verrou choisi parmi "bandes" verrous (id modulo bandes) ;
+//   un retrait multi-produits prend ses verrous dans l'ordre croissant des bandes, il est donc
+//   tout-ou-rien sans risque d'interblocage ;
+// - chaque delta est ajouté au journal (JournalStock) avant que l'appelant ne rende la main
+//   (écriture groupée, fsync si tricol.stock.moteur.fsync=true) ;
+// - toutes les "vidage-ms", le segment courant est fermé et ses deltas agrégés sont reportés dans
+//   produit.stock_actuel par un UPDATE batché, dans la même transaction que le repère stock_journal.
+//
+// Reprise après arrêt brutal : au démarrage, les segments de numéro supérieur au repère sont relus
+// (un enregistrement tronqué termine la lecture) et reportés en base avec le nouveau repère, puis supprimés.
+// Un segment déjà reporté mais pas encore supprimé est ignoré grâce au repère : chaque delta journalisé est
+// appliqué une seule fois. Avec fsync, une opération qui a rendu la main n'est jamais perdue ; sans fsync, on perd
+// au plus ce que le système n'a pas encore écrit sur disque. Les opérations d'un même produit sont journalisées
+// dans leur ordre d'exécution et la durabilité d'un enregistrement implique celle de tous les précédents.
+//
+// Retraits liés à une transaction (retirerDansTransaction) : la quantité est retenue en mémoire ("enCours")
+// et enregistrée dans stock_retraits par la transaction de l'appelant, pas dans le journal. Elle est donc
+// validée ou annulée avec la livraison, sans fenêtre entre le commit et le journal ; le vidage (et la reprise
+// au démarrage) la reporte dans produit.stock_actuel et supprime la ligne dans une même transaction.
+//
+// Une seule instance peut activer le moteur : les compteurs en mémoire ignorent les retraits d'une autre JVM.
+// Le repère porte un bail (nœud, échéance) pris au démarrage et renouvelé par le vidage ; une seconde instance
+// refuse de démarrer tant que le bail d'un autre nœud court. Un nœud qui reprend un bail expiré ne rejoue que
+// son propre dossier de journal : celui du nœud précédent doit être partagé ou repris à la main.
+//
+// Invariant : compteur en mémoire = produit.stock_actuel + deltas journalisés ou retraits validés non encore
+// reportés ("enAttente") - quantités retenues par des transactions en cours ("enCours").
+// Les chemins qui écrivent directement en base (réception et livraison en lot) appellent resynchroniser().
+@Slf4j
+@Component
+public class MoteurStock {
+
+    private static final String SQL_REPERE = "SELECT segment, noeud FROM stock_journal WHERE id = 1";
+    private static final String SQL_CREER_REPERE = "INSERT INTO stock_journal (id, segment) VALUES (1, 0)";
+    private static final String SQL_MAJ_REPERE = "UPDATE stock_journal SET segment = ? WHERE id = 1";
+    private static final String SQL_PRENDRE_BAIL =
+            "UPDATE stock_journal SET noeud = ?, bail = ? WHERE id = 1 AND (noeud IS NULL OR noeud = ? OR bail < ?)";
+    private static final String SQL_RENOUVELER_BAIL = "UPDATE stock_journal SET bail = ? WHERE id = 1 AND noeud = ?";
+    private static final String SQL_RENDRE_BAIL = "UPDATE stock_journal SET noeud = NULL, bail = NULL WHERE id = 1 AND noeud = ?";
+    private static final String SQL_RETRAIT = "INSERT INTO stock_retraits (id_produit, quantite) VALUES (?, ?)";
+    private static final String SQL_RETRAITS = "SELECT id, id_produit, quantite FROM stock_retraits";
+    private static final String SQL_SUPPRIMER_RETRAIT = "DELETE FROM stock_retraits WHERE id = ?";
+    private static final String SQL_STOCK = "SELECT stock_actuel FROM produit WHERE id = ?";
+    private static final String SQL_REPORTER =
+            "UPDATE produit SET stock_actuel = stock_actuel + ?, version = version + 1 WHERE id = ?";
+
+    private static final class Compteur {
+        long stock;
+        long enAttente;
+        long enCours;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ecriture;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean actif;
+    private final Path dossier;
+    private final boolean fsync;
+    private final String noeud;
+    private final long bailMs;
+
+    private final ReentrantLock[] verrous;
+    private final Map<Integer, Compteur> compteurs = new ConcurrentHashMap<>();
+    // exclut resynchroniser() pendant qu'un vidage valide et décompte ses deltas
+    private final ReentrantReadWriteLock report = new ReentrantReadWriteLock();
+    private final Object vidage = new Object();
+
+    private JournalStock journal;
+    private long prochainRenouvellement;
+
+    public MoteurStock(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${tricol.stock.moteur.actif:false}") boolean actif,
+                       @Value("${tricol.stock.moteur.dossier:journal-stock}") String dossier,
+                       @Value("${tricol.stock.moteur.bandes:256}") int bandes,
+                       @Value("${tricol.stock.moteur.fsync:true}") boolean fsync,
+                       @Value("${tricol.stock.moteur.noeud:${HOSTNAME:local}}") String noeud,
+                       @Value("${tricol.stock.moteur.bail-ms:30000}") long bailMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ecriture = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.actif = actif;
+        this.dossier = Path.of(dossier);
+        this.fsync = fsync;
+        this.noeud = noeud;
+        this.bailMs = bailMs;
+        this.verrous = new ReentrantLock[bandes];
+        for (int i = 0; i < bandes; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean actif() {
+        return actif;
+    }
+
+    // Reprise : prise du bail, report en base des segments non encore appliqués et des retraits validés,
+    // puis ouverture d'un nouveau segment
+    @PostConstruct
+    public void demarrer() {
+        if (!actif) {
+            return;
+        }
+        List<Map<String, Object>> repere = jdbcTemplate.queryForList(SQL_REPERE);
+        if (repere.isEmpty()) {
+            jdbcTemplate.update(SQL_CREER_REPERE);
+        }
+        prendreBail(repere.isEmpty() ? null : (String) repere.get(0).get("noeud"));
+        long dernierReporte = repere.isEmpty() ? 0 : ((Number) repere.get(0).get("segment")).longValue();
+
+        Map<Integer, Long> deltas = new HashMap<>();
+        long dernier = dernierReporte;
+        for (long segment : JournalStock.segments(dossier)) {
+            if (segment > dernierReporte) {
+                JournalStock.lire(dossier, segment).forEach((id, delta) -> deltas.merge(id, delta, Long::sum));
+            }
+            dernier = Math.max(dernier, segment);
+        }
+        long nouveauRepere = dernier;
+        int retraits = ecriture.execute(s -> {
+            int lus = lireRetraits(deltas);
+            if (nouveauRepere > dernierReporte || lus > 0) {
+                reporter(deltas, nouveauRepere);
+            }
+            return lus;
+        });
+        if (dernier > dernierReporte || retraits > 0) {
+            log.info("Journal de stock : {} produit(s) repris depuis les segments {} à {} et {} retrait(s) validé(s)",
+                    deltas.size(), dernierReporte + 1, dernier, retraits);
+        }
+        JournalStock.supprimer(dossier, dernier);
+        journal = new JournalStock(dossier, dernier + 1);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        if (actif && journal != null) {
+            vider();
+            journal.close();
+            jdbcTemplate.update(SQL_RENDRE_BAIL, noeud);
+        }
+    }
+
+    // Stock courant (chargé depuis la base au premier accès)
+    public int stock(int produitId) {
+        ReentrantLock verrou = verrou(produitId);
+        verrou.lock();
+        try {
+            return (int) compteur(produitId).stock;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    // Stock en mémoire si le produit a déjà été touché par le moteur, sinon null (la base est alors à jour)
+    public Integer stockEnMemoire(int produitId) {
+        if (!actif || !compteurs.containsKey(produitId)) {
+            return null;
+        }
+        return stock(produitId);
+    }
+
+    // Retire toutes les quantités ou aucune. Renvoie l'id du premier produit en stock insuffisant, ou vide.
+    public OptionalInt retirer(Map<Integer, Integer> quantites) {
+        List<ReentrantLock> pris = verrouiller(quantites.keySet());
+        long ticket = 0;
+        try {
+            for (Map.Entry<Integer, Integer> q : quantites.entrySet()) {
+                if (compteur(q.getKey()).stock < q.getValue()) {
+                    return OptionalInt.of(q.getKey());
+                }
+            }
+            for (Map.Entry<Integer, Integer> q : quantites.entrySet()) {
+                ticket = appliquer(q.getKey(), -q.getValue());
+            }
+        } finally {
+            pris.forEach(ReentrantLock::unlock);
+        }
+        rendreDurable(ticket);
+        return OptionalInt.empty();
+    }
+
+    public void ajouter(int produitId, int quantite) {
+        ReentrantLock verrou = verrou(produitId);
+        long ticket;
+        verrou.lock();
+        try {
+            ticket = appliquer(produitId, quantite);
+        } finally {
+            verrou.unlock();
+        }
+        rendreDurable(ticket);
+    }
+
+    // Retrait lié à la transaction courante : retenu en mémoire jusqu'à son issue et enregistré dans
+    // stock_retraits par cette même transaction, remis en stock si elle est annulée
+    public OptionalInt retirerDansTransaction(Map<Integer, Integer> quantites) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return retirer(quantites);
+        }
+        Map<Integer, Integer> retires = Map.copyOf(quantites);
+        List<ReentrantLock> pris = verrouiller(retires.keySet());
+        try {
+            if (!actif) {
+                throw new IllegalStateException("Moteur de stock inactif (tricol.stock.moteur.actif=false)");
+            }
+            for (Map.Entry<Integer, Integer> q : retires.entrySet()) {
+                if (compteur(q.getKey()).stock < q.getValue()) {
+                    return OptionalInt.of(q.getKey());
+                }
+            }
+            retires.forEach((produitId, quantite) -> {
+                Compteur compteur = compteurs.get(produitId);
+                compteur.stock -= quantite;
+                compteur.enCours += quantite;
+            });
+        } finally {
+            pris.forEach(ReentrantLock::unlock);
+        }
+        // synchronisation enregistrée avant l'insertion : si celle-ci échoue, l'annulation de la transaction
+        // rend la quantité
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // la ligne stock_retraits est validée : la quantité passe de "retenue" à "à reporter"
+                List<ReentrantLock> verrous = verrouiller(retires.keySet());
+                try {
+                    retires.forEach((produitId, quantite) -> {
+                        Compteur compteur = compteurs.get(produitId);
+                        compteur.enCours -= quantite;
+                        compteur.enAttente -= quantite;
+                    });
+                } finally {
+                    verrous.forEach(ReentrantLock::unlock);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                List<ReentrantLock> verrous = verrouiller(retires.keySet());
+                try {
+                    retires.forEach((produitId, quantite) -> {
+                        Compteur compteur = compteurs.get(produitId);
+                        compteur.stock += quantite;
+                        compteur.enCours -= quantite;
+                    });
+                } finally {
+                    verrous.forEach(ReentrantLock::unlock);
+                }
+            }
+        });
+        jdbcTemplate.batchUpdate(SQL_RETRAIT, retires.entrySet().stream()
+                .map(q -> new Object[]{q.getKey(), q.getValue()})
+                .toList());
+        return OptionalInt.empty();
+    }
+
+    // Entrée appliquée seulement si la transaction courante est validée
+    public void ajouterApresCommit(int produitId, int quantite) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ajouter(produitId, quantite);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ajouter(produitId, quantite);
+            }
+        });
+    }
+
+    // Recale les compteurs déjà chargés sur la base après une écriture directe (validée) de stock_actuel
+    public void resynchroniser(Collection<Integer> produitIds) {
+        if (!actif) {
+            return;
+        }
+        report.readLock().lock();
+        try {
+            for (int produitId : produitIds) {
+                ReentrantLock verrou = verrou(produitId);
+                verrou.lock();
+                try {
+                    Compteur compteur = compteurs.get(produitId);
+                    if (compteur != null) {
+                        compteur.stock = lireStock(produitId) + compteur.enAttente - compteur.enCours;
+                    }
+                } finally {
+                    verrou.unlock();
+                }
+            }
+        } finally {
+            report.readLock().unlock();
+        }
+    }
+
+    // Même recalage, une fois la transaction courante validée (sans effet si elle est annulée)
+    public void resynchroniserApresCommit(Collection<Integer> produitIds) {
+        if (!actif) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            resynchroniser(produitIds);
+            return;
+        }
+        List<Integer> ids = List.copyOf(produitIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                resynchroniser(ids);
+            }
+        });
+    }
+
+    // Report périodique des deltas du segment courant et des retraits validés dans produit.stock_actuel
+    @Scheduled(fixedDelayString = "${tricol.stock.moteur.vidage-ms:200}")
+    public void vider() {
+        if (!actif || journal == null) {
+            return;
+        }
+        synchronized (vidage) {
+            renouvelerBail();
+            JournalStock.Segment segment = journal.rotation();
+            Map<Integer, Long> reportes;
+            report.writeLock().lock();
+            try {
+                reportes = ecriture.execute(s -> {
+                    Map<Integer, Long> deltas = new HashMap<>(segment.deltas());
+                    if (lireRetraits(deltas) > 0 || !segment.deltas().isEmpty()) {
+                        reporter(deltas, segment.numero());
+                    }
+                    return deltas;
+                });
+                reportes.forEach((produitId, delta) -> {
+                    ReentrantLock verrou = verrou(produitId);
+                    verrou.lock();
+                    try {
+                        Compteur compteur = compteurs.get(produitId);
+                        if (compteur != null) {
+                            compteur.enAttente -= delta;
+                        }
+                    } finally {
+                        verrou.unlock();
+                    }
+                });
+            } finally {
+                report.writeLock().unlock();
+            }
+            // version incrémentée par le report : les ETag en cache ne sont plus valables
+            reportes.keySet().forEach(id -> eventPublisher.publishEvent(new EntiteModifieeEvent(TypeEntite.PRODUIT, id)));
+            JournalStock.supprimer(dossier, segment.numero());
+        }
+    }
+
+    // Ajoute aux deltas les retraits validés (négatifs) et supprime leurs lignes, dans la transaction du report ;
+    // renvoie le nombre de lignes lues
+    private int lireRetraits(Map<Integer, Long> deltas) {
+        List<Object[]> lus = new ArrayList<>();
+        jdbcTemplate.query(SQL_RETRAITS, rs -> {
+            deltas.merge(rs.getInt(2), -rs.getLong(3), Long::sum);
+            lus.add(new Object[]{rs.getLong(1)});
+        });
+        if (!lus.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_SUPPRIMER_RETRAIT, lus);
+        }
+        return lus.size();
+    }
+
+    private void prendreBail(String precedent) {
+        long maintenant = System.currentTimeMillis();
+        int pris = jdbcTemplate.update(SQL_PRENDRE_BAIL, noeud, new Timestamp(maintenant + bailMs), noeud, new Timestamp(maintenant));
+        if (pris == 0) {
+            throw new IllegalStateException("Moteur de stock déjà actif sur le nœud " + precedent
+                    + " : une seule instance peut activer tricol.stock.moteur.actif");
+        }
+        if (precedent != null && !precedent.equals(noeud)) {
+            log.warn("Moteur de stock repris du nœud {} (bail expiré) : ses segments de journal non reportés ne sont pas rejoués", precedent);
+        }
+        prochainRenouvellement = maintenant + bailMs / 3;
+    }
+
+    private void renouvelerBail() {
+        long maintenant = System.currentTimeMillis();
+        if (maintenant < prochainRenouvellement) {
+            return;
+        }
+        if (jdbcTemplate.update(SQL_RENOUVELER_BAIL, new Timestamp(maintenant + bailMs), noeud) == 0) {
+            log.error("Bail du moteur de stock perdu par le nœud {} : une autre instance a pu le reprendre", noeud);
+        }
+        prochainRenouvellement = maintenant + bailMs / 3;
+    }
+
+    private void reporter(Map<Integer, Long> deltas, long repere) {
+        List<Object[]> parametres = new ArrayList<>(deltas.size());
+        // ordre stable des verrous de ligne
+        new TreeMap<>(deltas).forEach((id, delta) -> {
+            if (delta != 0) {
+                parametres.add(new Object[]{delta, id});
+            }
+        });
+        if (!parametres.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_REPORTER, parametres);
+        }
+        jdbcTemplate.update(SQL_MAJ_REPERE, repere);
+    }
+
+    // sous le verrou du produit
+    private long appliquer(int produitId, int delta) {
+        if (!actif) {
+            throw new IllegalStateException("Moteur de stock inactif (tricol.stock.moteur.actif=false)");
+        }
+        Compteur compteur = compteur(produitId);
+        compteur.stock += delta;
+        compteur.enAttente += delta;
+        return journal.ajouter(produitId, delta);
+    }
+
+    private void rendreDurable(long ticket) {
+        if (fsync && ticket > 0) {
+            journal.synchroniser(ticket);
+        }
+    }
+
+    // sous le verrou du produit
+    private Compteur compteur(int produitId) {
+        Compteur compteur = compteurs.get(produitId);
+        if (compteur == null) {
+            compteur = new Compteur();
+            compteur.stock = lireStock(produitId);
+            compteurs.put(produitId, compteur);
+        }
+        return compteur;
+    }
+
+    private long lireStock(int produitId) {
+        List<Integer> stock = jdbcTemplate.queryForList(SQL_STOCK, Integer.class, produitId);
+        if (stock.isEmpty()) {
+            throw new RuntimeException("Produit non trouvé avec id : " + produitId);
+        }
+        return stock.get(0) == null ? 0 : stock.get(0);
+    }
+
+    private ReentrantLock verrou(int produitId) {
+        return verrous[Math.floorMod(produitId, verrous.length)];
+    }
+
+    // verrous distincts des produits, pris dans l'ordre croissant des bandes
+    private List<ReentrantLock> verrouiller(Collection<Integer> produitIds) {
+        TreeSet<Integer> bandes = new TreeSet<>();
+        produitIds.forEach(id -> bandes.add(Math.floorMod(id, verrous.length)));
+        List<ReentrantLock> pris = new ArrayList<>(bandes.size());
+        for (int bande : bandes) {
+            verrous[bande].lock();
+            pris.add(verrous[bande]);
+        }
+        return pris;
+    }
+}
@@ -0,0 +1,80 @@
+package com.tricol.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Montants monétaires : BigDecimal à l'échelle 2 aux frontières (entités, DTO, base),
+// centimes en long pour les calculs des chemins chauds (CUMP, totaux) afin d'éviter
+// d'allouer un BigDecimal par opération. Repli en BigDecimal uniquement en cas de dépassement.
+public final class Montants {
+
+    public static final int ECHELLE = 2;
+    public static final BigDecimal ZERO = BigDecimal.ZERO.setScale(ECHELLE);
+
+    private Montants() {
+    }
+
+    public static long versCentimes(BigDecimal montant) {
+        if (montant == null) {
+            return 0L;
+        }
+        return montant.setScale(ECHELLE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal versDecimal(long centimes) {
+        return BigDecimal.valueOf(centimes, ECHELLE);
+    }
+
+    // Somme de prix (centimes) x quantité : en long tant que possible, repli en BigDecimal au premier
+    // dépassement (prix_achat DECIMAL(10,2) x quantité int peut dépasser Long.MAX_VALUE)
+    public static final class Total {
+
+        private long centimes;
+        private BigDecimal repli;
+
+        public Total ajouter(long prix, long quantite) {
+            if (repli == null) {
+                try {
+                    centimes = Math.addExact(centimes, Math.multiplyExact(prix, quantite));
+                    return this;
+                } catch (ArithmeticException depassement) {
+                    repli = BigDecimal.valueOf(centimes);
+                }
+            }
+            repli = repli.add(BigDecimal.valueOf(prix).multiply(BigDecimal.valueOf(quantite)));
+            return this;
+        }
+
+        public BigDecimal versDecimal() {
+            return repli == null ? Montants.versDecimal(centimes) : repli.movePointLeft(ECHELLE);
+        }
+    }
+
+    // Coût unitaire moyen pondéré, en centimes, arrondi au centime (HALF_UP)
+    public static long cump(long ancienCump, long ancienStock, long nouveauPrix, long nouvelleQuantite) {
+        long stockTotal = ancienStock + nouvelleQuantite;
+        if (ancienStock == 0 || stockTotal == 0) {
+            return nouveauPrix;
+        }
+        try {
+            long valeur = Math.addExact(
+                    Math.multiplyExact(ancienStock, ancienCump),
+                    Math.multiplyExact(nouvelleQuantite, nouveauPrix));
+            return diviserArrondi(valeur, stockTotal);
+        } catch (ArithmeticException depassement) {
+            BigDecimal valeur = BigDecimal.valueOf(ancienStock).multiply(BigDecimal.valueOf(ancienCump))
+                    .add(BigDecimal.valueOf(nouvelleQuantite).multiply(BigDecimal.valueOf(nouveauPrix)));
+            return valeur.divide(BigDecimal.valueOf(stockTotal), 0, RoundingMode.HALF_UP).longValueExact();
+        }
+    }
+
+    // division entière arrondie HALF_UP (au plus loin de zéro à mi-chemin)
+    static long diviserArrondi(long dividende, long diviseur) {
+        long quotient = dividende / diviseur;
+        long reste = dividende % diviseur;
+        if (Math.abs(reste) >= Math.abs(diviseur) - Math.abs(reste)) {
+            quotient += Long.signum(dividende) * Long.signum(diviseur);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,360 @@
+package com.tricol.charge;
+
+import com.tricol.dto.CommandeDTO;
+import com.tricol.dto.CommandeLigneDTO;
+import com.tricol.dto.FournisseurDTO;
+import com.tricol.dto.ProduitDTO;
+import com.tricol.enums.StatutCommande;
+import com.tricol.service.CommandeLigneService;
+import com.tricol.service.CommandeService;
+import com.tricol.service.FournisseurService;
+import com.tricol.service.ProduitService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Banc de charge : exclu du build normal, lancé avec
+//   mvn -Pcharge test [-Dtricol.charge.duree-s=60] [-Dtricol.charge.threads=8]
+//                     [-Dtricol.charge.melange=fournisseur:5,reception:25,commande:35,livraison:15,lecture:20]
+//                     [-Dtricol.charge.graine=42]
+// Les services sont appelés directement (pas de HTTP) pour mesurer l'application et la base, pas Tomcat.
+// Chaque thread tire ses opérations avec sa propre graine (graine + numéro de thread) : à paramètres
+// égaux, deux commits exécutent la même séquence d'opérations et leurs rapports sont comparables.
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "charge"})
+class ChargeTricolTest {
+
+    @TestConfiguration
+    static class ConfigurationCharge {
+        @Bean
+        static CompteurRequetes compteurRequetes() {
+            return new CompteurRequetes();
+        }
+    }
+
+    // octets alloués par le thread courant (extension HotSpot de ThreadMXBean)
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    enum Operation { FOURNISSEUR, RECEPTION, COMMANDE, LIVRAISON, LECTURE }
+
+    @Autowired
+    private FournisseurService fournisseurService;
+    @Autowired
+    private ProduitService produitService;
+    @Autowired
+    private CommandeService commandeService;
+    @Autowired
+    private CommandeLigneService commandeLigneService;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${tricol.charge.duree-s:20}")
+    private int dureeSecondes;
+    @Value("${tricol.charge.prechauffage-s:5}")
+    private int prechauffageSecondes;
+    @Value("${tricol.charge.threads:4}")
+    private int threads;
+    @Value("${tricol.charge.melange:fournisseur:5,reception:25,commande:35,livraison:15,lecture:20}")
+    private String melange;
+    @Value("${tricol.charge.graine:42}")
+    private long graine;
+    @Value("${tricol.charge.fournisseurs-initiaux:50}")
+    private int fournisseursInitiaux;
+    @Value("${tricol.charge.produits-initiaux:200}")
+    private int produitsInitiaux;
+    @Value("${tricol.charge.rapport-dossier:target/charge}")
+    private String rapportDossier;
+
+    private final List<Integer> fournisseurs = new CopyOnWriteArrayList<>();
+    private final List<String> produits = new CopyOnWriteArrayList<>();
+    private final List<Integer> produitIds = new CopyOnWriteArrayList<>();
+    // commandes créées et pas encore livrées, consommées par l'opération LIVRAISON
+    private final Queue<CommandeDTO> aLivrer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Test
+    void chargeMelangeTricol() throws Exception {
+        Operation[] tirage = tirage(melange);
+        preparerDonnees(new Random(graine));
+
+        // préchauffage (JIT, pool de connexions, caches Hibernate) : mesures jetées
+        executer(tirage, prechauffageSecondes, graine - 1);
+        long[] attentePoolAvant = attentePool();
+        long[] hibernateAvant = hibernate();
+        Map<Operation, Mesures> mesures = executer(tirage, dureeSecondes, graine);
+        long[] attentePoolApres = attentePool();
+        long[] hibernateApres = hibernate();
+
+        String rapport = rapport(mesures) + String.format(Locale.ROOT,
+                "pool;acquisitions=%d;attente_moyenne_ms=%.3f%n",
+                attentePoolApres[0] - attentePoolAvant[0],
+                attentePoolApres[0] == attentePoolAvant[0] ? 0.0
+                        : (attentePoolApres[1] - attentePoolAvant[1]) / 1e6 / (attentePoolApres[0] - attentePoolAvant[0]))
+                + String.format("hibernate;flushs=%d;entites_chargees=%d;entites_modifiees=%d%n",
+                hibernateApres[0] - hibernateAvant[0], hibernateApres[1] - hibernateAvant[1], hibernateApres[2] - hibernateAvant[2]);
+        System.out.println(rapport);
+        ecrireRapport(rapport);
+
+        long total = mesures.values().stream().mapToLong(m -> m.succes).sum();
+        assertTrue(total > 0, "aucune opération réussie pendant le banc de charge");
+    }
+
+    private void preparerDonnees(Random random) {
+        for (int i = 0; i < fournisseursInitiaux; i++) {
+            fournisseurs.add(fournisseurService.createFournisseur(fournisseur()).getId());
+        }
+        // produits créés une fois en série : les réceptions ne font ensuite que des fusions CUMP
+        // (pas de doublons de nom tant qu'il n'y a pas de contrainte d'unicité)
+        for (int i = 0; i < produitsInitiaux; i++) {
+            String nom = "Produit charge " + i;
+            ProduitDTO cree = produitService.createProduit(produit(nom, random, 500 + random.nextInt(500)));
+            produits.add(nom);
+            produitIds.add(cree.getId());
+        }
+    }
+
+    private Map<Operation, Mesures> executer(Operation[] tirage, int secondes, long graineRun) throws Exception {
+        Map<Operation, Mesures> mesures = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            mesures.put(op, new Mesures());
+        }
+        long finNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(secondes);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Map<Operation, Mesures>>> resultats = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(graineRun + t);
+            resultats.add(executor.submit(() -> {
+                Map<Operation, Mesures> locales = new EnumMap<>(Operation.class);
+                while (System.nanoTime() < finNanos) {
+                    Operation op = tirage[random.nextInt(tirage.length)];
+                    CompteurRequetes.reinitialiser();
+                    long allocationAvant = THREADS.getCurrentThreadAllocatedBytes();
+                    long debut = System.nanoTime();
+                    boolean succes;
+                    try {
+                        succes = lancer(op, random);
+                    } catch (RuntimeException e) {
+                        succes = false;
+                    }
+                    locales.computeIfAbsent(op, k -> new Mesures())
+                            .enregistrer(succes, System.nanoTime() - debut, CompteurRequetes.valeur(),
+                                    THREADS.getCurrentThreadAllocatedBytes() - allocationAvant);
+                }
+                return locales;
+            }));
+        }
+        executor.shutdown();
+        for (Future<Map<Operation, Mesures>> resultat : resultats) {
+            resultat.get().forEach((op, m) -> mesures.get(op).fusionner(m));
+        }
+        mesures.values().forEach(m -> m.dureeNanos = TimeUnit.SECONDS.toNanos(secondes));
+        return mesures;
+    }
+
+    // renvoie false quand l'opération n'a rien pu faire (ex. aucune commande à livrer)
+    private boolean lancer(Operation op, Random random) {
+        switch (op) {
+            case FOURNISSEUR -> fournisseurs.add(fournisseurService.createFournisseur(fournisseur()).getId());
+            case RECEPTION -> produitService.createProduit(
+                    produit(produits.get(random.nextInt(produits.size())), random, 10 + random.nextInt(200)));
+            case COMMANDE -> {
+                CommandeDTO commande = commandeService.createCommande(CommandeDTO.builder()
+                        .fournisseurId(fournisseurs.get(random.nextInt(fournisseurs.size())))
+                        .dateCommande(LocalDateTime.now())
+                        .statut(StatutCommande.EN_ATTENTE)
+                        .montantTotal(BigDecimal.ZERO)
+                        .build());
+                // 1 à 5 lignes, quantités faibles : la plupart des commandes restent livrables
+                int nbLignes = 1 + random.nextInt(5);
+                for (int i = 0; i < nbLignes; i++) {
+                    commandeLigneService.createCommandeLigne(CommandeLigneDTO.builder()
+                            .commandeId(commande.getId())
+                            .produitId(produitIds.get(random.nextInt(produitIds.size())))
+                            .quantite(1 + random.nextInt(10))
+                            .build());
+                }
+                aLivrer.add(commande);
+            }
+            case LIVRAISON -> {
+                CommandeDTO commande = aLivrer.poll();
+                if (commande == null) {
+                    return false;
+                }
+                commande.setStatut(StatutCommande.LIVREE);
+                commandeService.updateCommande(commande.getId(), commande);
+            }
+            case LECTURE -> {
+                produitService.getAllProduits(random.nextInt(10), 20);
+                produitService.getProduitById(produitIds.get(random.nextInt(produitIds.size())));
+            }
+        }
+        return true;
+    }
+
+    private FournisseurDTO fournisseur() {
+        int n = sequence.incrementAndGet();
+        return FournisseurDTO.builder()
+                .societe("Fournisseur charge " + n)
+                .adresse(n + " rue de la Charge")
+                .contact("Contact " + n)
+                .email("fournisseur" + n + "@charge.ma")
+                .telephone(String.format("06%08d", n))
+                .ville("Casablanca")
+                .ICE(String.format("ICE%012d", n))
+                .build();
+    }
+
+    private ProduitDTO produit(String nom, Random random, int quantite) {
+        // prix autour de 100 DH, à deux décimales
+        BigDecimal prix = BigDecimal.valueOf(5_000 + random.nextInt(10_000), 2);
+        return ProduitDTO.builder()
+                .nom(nom)
+                .description("Produit généré par le banc de charge")
+                .prixUnitaire(prix)
+                .categorie("Charge")
+                .stockActuel(quantite)
+                .seuilAlerte(50)
+                .build();
+    }
+
+    // "fournisseur:5,reception:35" -> tableau où chaque opération apparaît autant de fois que son poids
+    static Operation[] tirage(String melange) {
+        List<Operation> tirage = new ArrayList<>();
+        for (String part : melange.split(",")) {
+            String[] cleValeur = part.trim().split(":");
+            Operation op = Operation.valueOf(cleValeur[0].trim().toUpperCase(Locale.ROOT));
+            int poids = Integer.parseInt(cleValeur[1].trim());
+            for (int i = 0; i < poids; i++) {
+                tirage.add(op);
+            }
+        }
+        if (tirage.isEmpty()) {
+            throw new IllegalArgumentException("Mélange vide : " + melange);
+        }
+        return tirage.toArray(Operation[]::new);
+    }
+
+    private String rapport(Map<Operation, Mesures> mesures) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Banc de charge Tricol : %d threads, %d s, graine %d, mélange %s%n",
+                threads, dureeSecondes, graine, melange));
+        sb.append("operation;succes;echecs;ops_par_s;p50_ms;p95_ms;p99_ms;max_ms;requetes_par_op;ko_alloues_par_op\n");
+        mesures.forEach((op, m) -> {
+            long[] latences = m.latencesTriees();
+            sb.append(String.format(Locale.ROOT, "%s;%d;%d;%.1f;%.2f;%.2f;%.2f;%.2f;%.1f;%.1f%n",
+                    op, m.succes, m.echecs,
+                    m.succes * 1e9 / m.dureeNanos,
+                    percentile(latences, 0.50), percentile(latences, 0.95),
+                    percentile(latences, 0.99), percentile(latences, 1.0),
+                    latences.length == 0 ? 0.0 : (double) m.requetes / latences.length,
+                    latences.length == 0 ? 0.0 : m.octets / 1024.0 / latences.length));
+        });
+        return sb.toString();
+    }
+
+    // {nombre d'acquisitions, temps d'attente cumulé en ns} du pool Hikari (métrique actuator)
+    private long[] attentePool() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Timer acquisition = registry == null ? null : registry.find("hikaricp.connections.acquire").timer();
+        if (acquisition == null) {
+            return new long[2];
+        }
+        return new long[]{acquisition.count(), (long) acquisition.totalTime(TimeUnit.NANOSECONDS)};
+    }
+
+    // {flushs, entités chargées, entités modifiées} (hibernate.generate_statistics du profil charge)
+    private long[] hibernate() {
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new long[]{statistiques.getFlushCount(), statistiques.getEntityLoadCount(), statistiques.getEntityUpdateCount()};
+    }
+
+    private void ecrireRapport(String rapport) throws IOException {
+        Path dossier = Files.createDirectories(Path.of(rapportDossier));
+        String horodatage = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(dossier.resolve("rapport-" + horodatage + ".csv")))) {
+            out.print(rapport);
+        }
+    }
+
+    // percentile "nearest rank" en millisecondes
+    static double percentile(long[] triees, double p) {
+        if (triees.length == 0) {
+            return 0;
+        }
+        int rang = (int) Math.ceil(p * triees.length);
+        return triees[Math.max(0, rang - 1)] / 1e6;
+    }
+
+    // mesures d'un thread pour une opération (fusionnées à la fin, pas de synchronisation pendant le run)
+    static final class Mesures {
+        private long[] latences = new long[1024];
+        private int taille;
+        private long succes;
+        private long echecs;
+        private long requetes;
+        private long octets;
+        private long dureeNanos;
+
+        void enregistrer(boolean ok, long latenceNanos, long nbRequetes, long nbOctets) {
+            if (ok) {
+                succes++;
+            } else {
+                echecs++;
+            }
+            requetes += nbRequetes;
+            octets += nbOctets;
+            if (taille == latences.length) {
+                latences = Arrays.copyOf(latences, taille * 2);
+            }
+            latences[taille++] = latenceNanos;
+        }
+
+        void fusionner(Mesures autre) {
+            if (taille + autre.taille > latences.length) {
+                latences = Arrays.copyOf(latences, taille + autre.taille);
+            }
+            System.arraycopy(autre.latences, 0, latences, taille, autre.taille);
+            taille += autre.taille;
+            succes += autre.succes;
+            echecs += autre.echecs;
+            requetes += autre.requetes;
+            octets += autre.octets;
+        }
+
+        long[] latencesTriees() {
+            long[] copie = Arrays.copyOf(latences, taille);
+            Arrays.sort(copie);
+            return copie;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.tricol.charge;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+// Compte les requêtes SQL émises par le thread courant : la DataSource de l'application est
+// enveloppée, ainsi que chaque Statement créé sur une de ses connexions, et chaque exécution (execute*,
+// un executeBatch comptant pour un aller-retour) incrémente un compteur local au thread. Un statement
+// préparé puis réutilisé compte autant de fois qu'il est exécuté, un statement jamais exécuté ne compte pas.
+// Les services sont transactionnels (@Transactional au niveau de la classe) : une opération s'exécute
+// sur le thread appelant, dans une transaction qui lie une connexion à ce thread et à laquelle les
+// repositories se rattachent ; le compteur reflète donc exactement le coût d'une opération.
+class CompteurRequetes implements BeanPostProcessor {
+
+    private static final Set<String> CREATION_REQUETE = Set.of("prepareStatement", "createStatement", "prepareCall");
+    private static final Set<String> EXECUTION_REQUETE = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final ThreadLocal<long[]> COMPTEUR = ThreadLocal.withInitial(() -> new long[1]);
+
+    static void reinitialiser() {
+        COMPTEUR.get()[0] = 0;
+    }
+
+    static long valeur() {
+        return COMPTEUR.get()[0];
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof Comptee)) {
+            return new Comptee(dataSource);
+        }
+        return bean;
+    }
+
+    private static final class Comptee extends DelegatingDataSource {
+
+        Comptee(DataSource cible) {
+            super(cible);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return compter(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return compter(super.getConnection(username, password));
+        }
+
+        private static Connection compter(Connection connexion) {
+            return (Connection) Proxy.newProxyInstance(
+                    CompteurRequetes.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, methode, args) -> {
+                        Object resultat = invoquer(connexion, methode, args);
+                        if (CREATION_REQUETE.contains(methode.getName())) {
+                            // Statement, PreparedStatement ou CallableStatement selon la méthode
+                            return compterExecutions(resultat, methode.getReturnType());
+                        }
+                        return resultat;
+                    });
+        }
+
+        private static Object compterExecutions(Object statement, Class<?> type) {
+            return Proxy.newProxyInstance(
+                    CompteurRequetes.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    (proxy, methode, args) -> {
+                        if (EXECUTION_REQUETE.contains(methode.getName())) {
+                            COMPTEUR.get()[0]++;
+                        }
+                        return invoquer(statement, methode, args);
+                    });
+        }
+
+        private static Object invoquer(Object cible, Method methode, Object[] args) throws Throwable {
+            try {
+                return methode.invoke(cible, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.tricol.charge;
+
+import com.tricol.dto.ImportFournisseursDTO;
+import com.tricol.service.FournisseurImportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Fichier CSV de 500 000 lignes généré à la volée (jamais entier en mémoire), importé deux fois :
+// le premier passage crée, le second met à jour les mêmes ICE. 1 % des lignes répètent un ICE du fichier.
+// Lancé avec le banc de charge : mvn -Pcharge test
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "charge"})
+class ImportFournisseursChargeTest {
+
+    private static final int LIGNES = 500_000;
+    private static final int LIGNES_PAR_MORCEAU = 10_000;
+
+    @Autowired
+    private FournisseurImportService fournisseurImportService;
+
+    @Test
+    void importer500000Lignes() {
+        System.out.println("passage;lignes;crees;mis_a_jour;rejetees;ms;lignes_par_s");
+        ImportFournisseursDTO creation = fournisseurImportService.importer(fichier(), FournisseurImportService.Format.CSV);
+        afficher("creation", creation);
+        ImportFournisseursDTO miseAJour = fournisseurImportService.importer(fichier(), FournisseurImportService.Format.CSV);
+        afficher("mise_a_jour", miseAJour);
+
+        long doublons = LIGNES / 100;
+        assertEquals(LIGNES - doublons, creation.getCrees());
+        assertEquals(doublons, creation.getRejetees());
+        assertEquals(LIGNES - doublons, miseAJour.getMisAJour());
+    }
+
+    private static void afficher(String passage, ImportFournisseursDTO rapport) {
+        System.out.printf(Locale.ROOT, "%s;%d;%d;%d;%d;%d;%.0f%n", passage, rapport.getLignes(), rapport.getCrees(),
+                rapport.getMisAJour(), rapport.getRejetees(), rapport.getDureeMs(), rapport.getLignesParSeconde());
+    }
+
+    private static InputStream fichier() {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int suivante = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return suivante < LIGNES;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                StringBuilder morceau = new StringBuilder();
+                if (suivante < 0) {
+                    morceau.append("societe,adresse,contact,email,telephone,ville,ice\n");
+                    suivante = 0;
+                }
+                int fin = Math.min(LIGNES, suivante + LIGNES_PAR_MORCEAU);
+                for (int n = suivante; n < fin; n++) {
+                    // une ligne sur cent reprend l'ICE de la ligne précédente
+                    int ice = n % 100 == 99 ? n - 1 : n;
+                    morceau.append("Societe ").append(n).append(",\"").append(n).append(" rue de l'Import, Casablanca\",")
+                            .append("Contact ").append(n).append(",contact").append(n).append("@example.com,")
+                            .append("06").append(String.format("%08d", n)).append(",Casablanca,")
+                            .append(String.format("ICEIMP%09d", ice)).append('\n');
+                }
+                suivante = fin;
+                return new ByteArrayInputStream(morceau.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.tricol.charge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tricol.controller.FluxJson;
+import com.tricol.dto.CommandeDTO;
+import com.tricol.enums.StatutCommande;
+import com.tricol.model.Commande;
+import com.tricol.model.Fournisseur;
+import com.tricol.repository.CommandeRepository;
+import com.tricol.repository.FournisseurRepository;
+import com.tricol.service.CommandeService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Page de 10 000 commandes : Page<CommandeDTO> construite puis sérialisée, contre liste en streaming.
+// Mesure les octets alloués et le temps par page. Lancé avec le banc de charge : mvn -Pcharge test
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "charge"})
+class ListeFluxChargeTest {
+
+    private static final int TAILLE_PAGE = 10_000;
+    private static final int TOURS = 20;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private FournisseurRepository fournisseurRepository;
+    @Autowired
+    private CommandeRepository commandeRepository;
+    @Autowired
+    private CommandeService commandeService;
+    @Autowired
+    private FluxJson fluxJson;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void comparerPageEtFlux() throws Exception {
+        Fournisseur fournisseur = fournisseurRepository.save(Fournisseur.builder()
+                .societe("Fournisseur flux").ville("Casablanca").adresse("Adresse").contact("Contact")
+                .email("flux@example.com").telephone("0600000000").ICE("ICEFLUX").build());
+        List<Commande> commandes = new ArrayList<>(TAILLE_PAGE);
+        for (int i = 0; i < TAILLE_PAGE; i++) {
+            commandes.add(Commande.builder().fournisseur(fournisseur).statut(StatutCommande.LIVREE)
+                    .dateCommande(LocalDateTime.now().minusDays(i % 365))
+                    .montantTotal(BigDecimal.valueOf(10_000 + i, 2)).build());
+        }
+        commandeRepository.saveAll(commandes);
+
+        System.out.println("mode;mo_alloues_par_page;ms_par_page");
+        mesurer("page", () -> objectMapper.writeValue(OutputStream.nullOutputStream(),
+                commandeService.getAllCommandes(0, TAILLE_PAGE)));
+        mesurer("flux", () -> fluxJson.<CommandeDTO>page(0, TAILLE_PAGE,
+                        consommateur -> commandeService.parcourirCommandes(0, TAILLE_PAGE, consommateur))
+                .writeTo(OutputStream.nullOutputStream()));
+
+        assertEquals(TAILLE_PAGE, commandeService.parcourirCommandes(0, TAILLE_PAGE, dto -> { }));
+    }
+
+    private interface Action {
+        void executer() throws Exception;
+    }
+
+    private void mesurer(String mode, Action action) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            action.executer();
+        }
+        long allocation = THREADS.getCurrentThreadAllocatedBytes();
+        long debut = System.nanoTime();
+        for (int i = 0; i < TOURS; i++) {
+            action.executer();
+        }
+        long duree = System.nanoTime() - debut;
+        allocation = THREADS.getCurrentThreadAllocatedBytes() - allocation;
+        System.out.printf(Locale.ROOT, "%s;%.1f;%.1f%n", mode, allocation / 1024.0 / 1024.0 / TOURS, duree / 1e6 / TOURS);
+    }
+}
@@ -0,0 +1,143 @@
+package com.tricol.charge;
+
+import com.tricol.util.Montants;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Débit et allocations du calcul monétaire sur les chemins chauds (repli du CUMP d'un produit sur ses
+// achats, total d'une commande) : ancien calcul en double, centimes en long (Montants) et BigDecimal pur.
+// JMH n'est pas disponible dans le build : préchauffage puis mesures répétées, à la manière de
+// SerialisationChargeTest. Lancé avec le banc de charge : mvn -Pcharge test
+@Tag("charge")
+class MontantsChargeTest {
+
+    private static final int LIGNES = 1_000_000;
+    private static final int PRECHAUFFAGE = 5;
+    private static final int TOURS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // achats synthétiques : prix entre 10.00 et 9 999.99, quantités entre 1 et 50
+    private final long[] prix = new long[LIGNES];
+    private final int[] quantites = new int[LIGNES];
+    private final double[] prixDouble = new double[LIGNES];
+    private final BigDecimal[] prixDecimal = new BigDecimal[LIGNES];
+
+    @Test
+    void comparerDoubleCentimesEtBigDecimal() {
+        Random aleatoire = new Random(42);
+        for (int i = 0; i < LIGNES; i++) {
+            prix[i] = 1_000 + aleatoire.nextInt(999_000);
+            quantites[i] = 1 + aleatoire.nextInt(50);
+            prixDouble[i] = prix[i] / 100.0;
+            prixDecimal[i] = Montants.versDecimal(prix[i]);
+        }
+
+        System.out.println("calcul;arithmetique;lignes_par_s;octets_par_ligne;resultat");
+        long cumpCentimes = mesurer("cump", "centimes", this::cumpCentimes);
+        long cumpDecimal = mesurer("cump", "bigdecimal", this::cumpDecimal);
+        long cumpDouble = mesurer("cump", "double", this::cumpDouble);
+        long totalCentimes = mesurer("total", "centimes", this::totalCentimes);
+        long totalDecimal = mesurer("total", "bigdecimal", this::totalDecimal);
+        long totalDouble = mesurer("total", "double", this::totalDouble);
+
+        // les centimes donnent exactement le résultat BigDecimal ; l'écart du double est affiché
+        assertEquals(cumpDecimal, cumpCentimes);
+        assertEquals(totalDecimal, totalCentimes);
+        System.out.printf(Locale.ROOT, "ecart_double;cump=%d;total=%d%n",
+                cumpDouble - cumpCentimes, totalDouble - totalCentimes);
+    }
+
+    private long mesurer(String calcul, String arithmetique, LongSupplier operation) {
+        long resultat = 0;
+        for (int i = 0; i < PRECHAUFFAGE; i++) {
+            resultat = operation.getAsLong();
+        }
+        long duree = 0;
+        long allocation = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < TOURS; i++) {
+            long debut = System.nanoTime();
+            resultat = operation.getAsLong();
+            duree += System.nanoTime() - debut;
+        }
+        allocation = THREADS.getCurrentThreadAllocatedBytes() - allocation;
+        System.out.printf(Locale.ROOT, "%s;%s;%.0f;%.1f;%d%n", calcul, arithmetique,
+                (double) LIGNES * TOURS * 1_000_000_000L / duree, (double) allocation / LIGNES / TOURS, resultat);
+        return resultat;
+    }
+
+    // ----- CUMP : repli de toutes les lignes sur un seul produit, résultat en centimes -----
+
+    private long cumpCentimes() {
+        long cump = 0;
+        long stock = 0;
+        for (int i = 0; i < LIGNES; i++) {
+            cump = Montants.cump(cump, stock, prix[i], quantites[i]);
+            stock += quantites[i];
+        }
+        return cump;
+    }
+
+    private long cumpDecimal() {
+        BigDecimal cump = BigDecimal.ZERO;
+        long stock = 0;
+        for (int i = 0; i < LIGNES; i++) {
+            if (stock == 0) {
+                cump = prixDecimal[i];
+            } else {
+                cump = cump.multiply(BigDecimal.valueOf(stock))
+                        .add(prixDecimal[i].multiply(BigDecimal.valueOf(quantites[i])))
+                        .divide(BigDecimal.valueOf(stock + quantites[i]), Montants.ECHELLE, RoundingMode.HALF_UP);
+            }
+            stock += quantites[i];
+        }
+        return Montants.versCentimes(cump);
+    }
+
+    private long cumpDouble() {
+        double cump = 0;
+        long stock = 0;
+        for (int i = 0; i < LIGNES; i++) {
+            cump = stock == 0 ? prixDouble[i]
+                    : Math.round((cump * stock + prixDouble[i] * quantites[i]) / (stock + quantites[i]) * 100) / 100.0;
+            stock += quantites[i];
+        }
+        return Math.round(cump * 100);
+    }
+
+    // ----- total : somme prix x quantité de toutes les lignes, résultat en centimes -----
+
+    private long totalCentimes() {
+        Montants.Total total = new Montants.Total();
+        for (int i = 0; i < LIGNES; i++) {
+            total.ajouter(prix[i], quantites[i]);
+        }
+        return Montants.versCentimes(total.versDecimal());
+    }
+
+    private long totalDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < LIGNES; i++) {
+            total = total.add(prixDecimal[i].multiply(BigDecimal.valueOf(quantites[i])));
+        }
+        return Montants.versCentimes(total);
+    }
+
+    private long totalDouble() {
+        double total = 0;
+        for (int i = 0; i < LIGNES; i++) {
+            total += prixDouble[i] * quantites[i];
+        }
+        return Math.round(total * 100);
+    }
+}
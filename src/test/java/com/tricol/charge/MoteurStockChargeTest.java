@@ -0,0 +1,105 @@
+package com.tricol.charge;
+
+import com.tricol.dto.ProduitDTO;
+import com.tricol.repository.ProduitRepository;
+import com.tricol.service.ProduitService;
+import com.tricol.stock.MoteurStock;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 100 références très sollicitées, 32 fils qui enchaînent retraits (1 à 3 références à la fois) et entrées
+// pendant que le vidage tourne en tâche de fond ; objectif visé : 100 000 opérations/s.
+// Vérifie ensuite que stock en base (après vidage) = stock initial - retraits acceptés + entrées.
+// Lancé avec le banc de charge : mvn -Pcharge test
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "tricol.stock.moteur.actif=true",
+        "tricol.reservation.actif=false",
+        "tricol.stock.moteur.dossier=target/journal-stock-charge"})
+@ActiveProfiles({"test", "charge"})
+class MoteurStockChargeTest {
+
+    private static final int REFERENCES = 100;
+    private static final int FILS = 32;
+    private static final int OPERATIONS_PAR_FIL = 50_000;
+
+    @Autowired
+    private MoteurStock moteurStock;
+    @Autowired
+    private ProduitService produitService;
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Test
+    void retraitsEtEntreesConcurrents() throws Exception {
+        List<Integer> ids = new ArrayList<>(REFERENCES);
+        for (int i = 0; i < REFERENCES; i++) {
+            ids.add(produitService.createProduit(ProduitDTO.builder().nom("Moteur Ref " + i)
+                    .prixUnitaire(new BigDecimal("10.00")).stockActuel(1_000).build()).getId());
+        }
+        AtomicLong[] mouvements = new AtomicLong[REFERENCES];
+        for (int i = 0; i < REFERENCES; i++) {
+            mouvements[i] = new AtomicLong();
+        }
+        AtomicLong refus = new AtomicLong();
+
+        ExecutorService fils = Executors.newFixedThreadPool(FILS);
+        long debut = System.nanoTime();
+        List<Future<?>> taches = new ArrayList<>();
+        for (int f = 0; f < FILS; f++) {
+            taches.add(fils.submit(() -> {
+                ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+                for (int op = 0; op < OPERATIONS_PAR_FIL; op++) {
+                    int a = aleatoire.nextInt(REFERENCES);
+                    if (aleatoire.nextInt(3) == 0) {
+                        moteurStock.ajouter(ids.get(a), 5);
+                        mouvements[a].addAndGet(5);
+                        continue;
+                    }
+                    int b = aleatoire.nextInt(REFERENCES);
+                    Map<Integer, Integer> retrait = a == b ? Map.of(ids.get(a), 2) : Map.of(ids.get(a), 2, ids.get(b), 1);
+                    if (moteurStock.retirer(retrait).isPresent()) {
+                        refus.incrementAndGet();
+                    } else {
+                        mouvements[a].addAndGet(-2);
+                        if (a != b) {
+                            mouvements[b].addAndGet(-1);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        long duree = System.nanoTime() - debut;
+        fils.shutdown();
+        moteurStock.vider();
+
+        long operations = (long) FILS * OPERATIONS_PAR_FIL;
+        System.out.println("fils;operations;refus;ms;operations_par_s");
+        System.out.printf(Locale.ROOT, "%d;%d;%d;%d;%.0f%n", FILS, operations, refus.get(), duree / 1_000_000, operations * 1e9 / duree);
+
+        for (int i = 0; i < REFERENCES; i++) {
+            long attendu = 1_000 + mouvements[i].get();
+            assertEquals(attendu, moteurStock.stock(ids.get(i)));
+            assertEquals(attendu, produitRepository.findById(ids.get(i)).orElseThrow().getStockActuel());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tricol.charge;
+
+import com.tricol.dto.ProduitDTO;
+import com.tricol.dto.ReceptionLotDTO;
+import com.tricol.repository.ProduitRepository;
+import com.tricol.service.ProduitService;
+import com.tricol.service.ReceptionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Bordereau de 20 000 lignes (5 000 références, la moitié déjà en stock) : createProduit ligne à ligne
+// contre ReceptionService en lot, sur deux jeux de noms distincts mais identiques en contenu.
+// Lancé avec le banc de charge : mvn -Pcharge test
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "charge"})
+class ReceptionChargeTest {
+
+    private static final int LIGNES = 20_000;
+    private static final int REFERENCES = 5_000;
+
+    @Autowired
+    private ProduitService produitService;
+    @Autowired
+    private ReceptionService receptionService;
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Test
+    void comparerUnitaireEtLot() {
+        Random aleatoire = new Random(43);
+        List<ProduitDTO> modele = new ArrayList<>(LIGNES);
+        for (int i = 0; i < LIGNES; i++) {
+            modele.add(ProduitDTO.builder()
+                    .nom("Ref " + aleatoire.nextInt(REFERENCES))
+                    .prixUnitaire(BigDecimal.valueOf(100 + aleatoire.nextInt(100_000), 2))
+                    .stockActuel(1 + aleatoire.nextInt(50))
+                    .build());
+        }
+        for (String prefixe : List.of("Unitaire ", "Lot ")) {
+            for (int i = 0; i < REFERENCES; i += 2) {
+                produitService.createProduit(ProduitDTO.builder().nom(prefixe + "Ref " + i)
+                        .prixUnitaire(new BigDecimal("10.00")).stockActuel(100).build());
+            }
+        }
+
+        long debut = System.nanoTime();
+        modele.forEach(l -> produitService.createProduit(copie("Unitaire ", l)));
+        long unitaire = System.nanoTime() - debut;
+
+        List<ProduitDTO> bordereau = modele.stream().map(l -> copie("Lot ", l)).toList();
+        debut = System.nanoTime();
+        ReceptionLotDTO rapport = receptionService.receptionner(bordereau);
+        long lot = System.nanoTime() - debut;
+
+        System.out.println("mode;lignes;ms;lignes_par_s");
+        System.out.printf(Locale.ROOT, "unitaire;%d;%d;%.0f%n", LIGNES, unitaire / 1_000_000, LIGNES * 1e9 / unitaire);
+        System.out.printf(Locale.ROOT, "lot;%d;%d;%.0f%n", LIGNES, lot / 1_000_000, LIGNES * 1e9 / lot);
+        assertEquals(LIGNES, rapport.getLignes());
+
+        for (int i = 0; i < REFERENCES; i += 97) {
+            var attendu = produitRepository.findByNom("Unitaire Ref " + i);
+            var obtenu = produitRepository.findByNom("Lot Ref " + i);
+            if (attendu == null) {
+                continue;
+            }
+            assertEquals(attendu.getStockActuel(), obtenu.getStockActuel());
+            assertEquals(0, attendu.getCoutMoyenUnitaire().compareTo(obtenu.getCoutMoyenUnitaire()));
+        }
+    }
+
+    private static ProduitDTO copie(String prefixe, ProduitDTO ligne) {
+        return ProduitDTO.builder().nom(prefixe + ligne.getNom())
+                .prixUnitaire(ligne.getPrixUnitaire()).stockActuel(ligne.getStockActuel()).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.tricol.charge;
+
+import com.tricol.dto.RevalorisationRapportDTO;
+import com.tricol.generation.GenerateurDonnees;
+import com.tricol.service.RevalorisationCumpService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Revalorisation du CUMP sur 1 000 000 lignes d'achat réparties sur 100 produits : un passage
+// séquentiel (une partition, un fil) contre le passage partitionné par tranches d'ids.
+// Lancé avec le banc de charge : mvn -Pcharge test
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "charge"})
+class RevalorisationChargeTest {
+
+    private static final int PRODUITS = 100;
+    private static final int LIGNES = 1_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void comparerSequentielEtPartitionne() throws Exception {
+        new GenerateurDonnees(jdbcTemplate, 50, PRODUITS, LIGNES / 10, LIGNES, 0, 5_000, 1095, 42).run();
+
+        int coeurs = Runtime.getRuntime().availableProcessors();
+        System.out.println("mode;fils;partitions;lignes;ms;lignes_par_s");
+        RevalorisationRapportDTO sequentiel = mesurer("sequentiel", 1, 1);
+        RevalorisationRapportDTO partitionne = mesurer("partitionne", coeurs, coeurs * 4);
+
+        assertTrue(sequentiel.getLignesTraitees() >= LIGNES * 0.9, "lignes non annulées relues");
+        assertEquals(sequentiel.getLignesTraitees(), partitionne.getLignesTraitees());
+        assertEquals(sequentiel.getProduitsMisAJour(), partitionne.getProduitsMisAJour());
+    }
+
+    private RevalorisationRapportDTO mesurer(String mode, int parallelisme, int partitions) throws InterruptedException {
+        RevalorisationCumpService service = new RevalorisationCumpService(
+                jdbcTemplate, eventPublisher, transactionManager, parallelisme, partitions);
+        service.lancer();
+        RevalorisationRapportDTO rapport = service.etat();
+        while (rapport.isEnCours()) {
+            Thread.sleep(100);
+            rapport = service.etat();
+        }
+        assertNull(rapport.getErreur());
+        System.out.printf(Locale.ROOT, "%s;%d;%d;%d;%d;%.0f%n", mode, parallelisme, rapport.getPartitions(),
+                rapport.getLignesTraitees(), rapport.getDureeMs(), rapport.getLignesParSeconde());
+        return rapport;
+    }
+}
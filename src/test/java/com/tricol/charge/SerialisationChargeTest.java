@@ -0,0 +1,73 @@
+package com.tricol.charge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tricol.config.FormatBinaireConfig;
+import com.tricol.dto.CommandeLigneDTO;
+import com.tricol.dto.MouvementStockDTO;
+import com.tricol.enums.TypeMouvement;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Compare JSON et CBOR sur les volumes de la synchro ERP : octets produits, temps CPU et allocations
+// pour sérialiser puis désérialiser. Lancé avec le banc de charge : mvn -Pcharge test
+@Tag("charge")
+class SerialisationChargeTest {
+
+    private static final int NOMBRE = 200_000;
+    private static final int TOURS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void comparerJsonEtCbor() throws Exception {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = new FormatBinaireConfig().cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+
+        List<CommandeLigneDTO> lignes = new ArrayList<>(NOMBRE);
+        List<MouvementStockDTO> mouvements = new ArrayList<>(NOMBRE);
+        for (int i = 1; i <= NOMBRE; i++) {
+            lignes.add(CommandeLigneDTO.builder().id(i).commandeId(i / 10).produitId(i % 5_000)
+                    .quantite(1 + i % 50).prixAchat(BigDecimal.valueOf(1_000 + i % 90_000, 2)).build());
+            mouvements.add(MouvementStockDTO.builder().id(i).commandeId(i / 10).quantite(1 + i % 500)
+                    .typeMouvement(TypeMouvement.ENTREE).dateMouvement(LocalDate.of(2025, 1, 1).plusDays(i % 365).toString()).build());
+        }
+
+        System.out.println("format;donnees;octets;ecriture_ms;lecture_ms;mo_alloues_par_tour");
+        for (String format : List.of("json", "cbor")) {
+            ObjectMapper mapper = format.equals("json") ? json : cbor;
+            mesurer(format, "CommandeLigneDTO", mapper, lignes, CommandeLigneDTO[].class);
+            mesurer(format, "MouvementStockDTO", mapper, mouvements, MouvementStockDTO[].class);
+        }
+    }
+
+    private void mesurer(String format, String donnees, ObjectMapper mapper, List<?> valeurs, Class<?> type) throws Exception {
+        // préchauffage
+        for (int i = 0; i < 3; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(valeurs), type);
+        }
+        long ecriture = 0;
+        long lecture = 0;
+        long allocation = THREADS.getCurrentThreadAllocatedBytes();
+        byte[] octets = null;
+        for (int i = 0; i < TOURS; i++) {
+            long debut = THREADS.getCurrentThreadCpuTime();
+            octets = mapper.writeValueAsBytes(valeurs);
+            long milieu = THREADS.getCurrentThreadCpuTime();
+            mapper.readValue(octets, type);
+            ecriture += milieu - debut;
+            lecture += THREADS.getCurrentThreadCpuTime() - milieu;
+        }
+        allocation = THREADS.getCurrentThreadAllocatedBytes() - allocation;
+        System.out.printf(Locale.ROOT, "%s;%s;%d;%.1f;%.1f;%.1f%n", format, donnees, octets.length,
+                ecriture / 1e6 / TOURS, lecture / 1e6 / TOURS, allocation / 1024.0 / 1024.0 / TOURS);
+    }
+}
@@ -0,0 +1,73 @@
+package com.tricol.charge;
+
+import com.tricol.service.FournisseurSuppressionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Fournisseur portant 1 000 000 de commandes (une ligne chacune, un mouvement pour une sur deux),
+// supprimé par FournisseurSuppressionService. Affiche la durée totale et le débit en commandes par seconde.
+// Lancé avec le banc de charge : mvn -Pcharge test (taille : -Dtricol.charge.suppression-commandes=...)
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "charge"})
+class SuppressionFournisseurChargeTest {
+
+    private static final int TAILLE_LOT = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private FournisseurSuppressionService fournisseurSuppressionService;
+
+    @Value("${tricol.charge.suppression-commandes:1000000}")
+    private int commandes;
+
+    @Test
+    void supprimerFournisseurAvecUnMillionDeCommandes() {
+        jdbcTemplate.update("INSERT INTO fournisseur (societe, ice) VALUES ('Fournisseur suppression', 'ICESUPPR')");
+        int fournisseurId = jdbcTemplate.queryForObject("SELECT id FROM fournisseur WHERE ice = 'ICESUPPR'", Integer.class);
+        jdbcTemplate.update("INSERT INTO produit (nom, prix_unitaire, stock_actuel) VALUES ('Produit suppression', 10.00, 0)");
+        int produitId = jdbcTemplate.queryForObject("SELECT id FROM produit WHERE nom = 'Produit suppression'", Integer.class);
+
+        Timestamp date = Timestamp.valueOf(LocalDateTime.now());
+        for (int fait = 0; fait < commandes; fait += TAILLE_LOT) {
+            int taille = Math.min(TAILLE_LOT, commandes - fait);
+            List<Object[]> lot = new ArrayList<>(taille);
+            for (int i = 0; i < taille; i++) {
+                lot.add(new Object[]{date, "LIVREE", new BigDecimal("10.00"), fournisseurId});
+            }
+            Integer depart = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM commandes", Integer.class);
+            jdbcTemplate.batchUpdate("INSERT INTO commandes (date_commande, statut, montant_total, id_fournisseur) VALUES (?, ?, ?, ?)", lot);
+            List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM commandes WHERE id > ? ORDER BY id", Integer.class, depart);
+            jdbcTemplate.batchUpdate("INSERT INTO commandes_lignes (id_produit, id_commande, quantite, prix_achat) VALUES (?, ?, 1, 10.00)",
+                    ids.stream().map(id -> new Object[]{produitId, id}).toList());
+            jdbcTemplate.batchUpdate("INSERT INTO mouvements_stock (id_commande, type_mouvement, quantite, date_mouvement) VALUES (?, 'ENTREE', 1, ?)",
+                    ids.stream().filter(id -> id % 2 == 0).map(id -> new Object[]{id, date}).toList());
+        }
+
+        long debut = System.nanoTime();
+        long supprimees = fournisseurSuppressionService.supprimer(fournisseurId);
+        long duree = System.nanoTime() - debut;
+
+        System.out.println("commandes;ms;commandes_par_s");
+        System.out.printf(Locale.ROOT, "%d;%d;%.0f%n", supprimees, duree / 1_000_000, supprimees * 1e9 / duree);
+
+        assertEquals(commandes, supprimees);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM commandes WHERE id_fournisseur = ?", Integer.class, fournisseurId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM fournisseur WHERE id = ?", Integer.class, fournisseurId));
+    }
+}
@@ -0,0 +1,109 @@
+package com.tricol.charge;
+
+import com.tricol.dto.ProduitDTO;
+import com.tricol.repository.DialecteSql;
+import com.tricol.repository.VerrousDistribues;
+import com.tricol.service.ProduitService;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Deux "noeuds" (deux instances de VerrousDistribues, sans état local partagé) qui enchaînent des
+// lecture-calcul-écriture du stock de 10 références très disputées, comme une livraison sans verrou de ligne.
+// Mesure le débit avec verrous consultatifs, puis sans, et vérifie qu'avec verrous aucune mise à jour
+// n'est perdue. PostgreSQL uniquement : le repli local des autres bases ne coordonne pas deux instances.
+// Lancé avec le banc de charge sur une base PostgreSQL : mvn -Pcharge test
+@Tag("charge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "charge"})
+class VerrousDistribuesChargeTest {
+
+    private static final int REFERENCES = 10;
+    private static final int FILS_PAR_NOEUD = 8;
+    private static final int OPERATIONS_PAR_FIL = 2_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DialecteSql dialecteSql;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ProduitService produitService;
+
+    @Test
+    void lectureCalculEcritureEntreDeuxNoeuds() throws Exception {
+        Assumptions.assumeTrue(dialecteSql.estPostgres(), "verrous consultatifs : PostgreSQL requis");
+
+        System.out.println("verrous;transactions;ms;transactions_par_s;mises_a_jour_perdues");
+        long perduesAvec = mesurer(true);
+        mesurer(false);
+
+        assertEquals(0, perduesAvec);
+    }
+
+    // renvoie le nombre de mises à jour perdues
+    private long mesurer(boolean avecVerrous) throws Exception {
+        List<Integer> ids = new ArrayList<>(REFERENCES);
+        for (int i = 0; i < REFERENCES; i++) {
+            ids.add(produitService.createProduit(ProduitDTO.builder().nom("Verrou Ref " + System.nanoTime())
+                    .prixUnitaire(new BigDecimal("10.00")).stockActuel(0).build()).getId());
+        }
+        VerrousDistribues[] noeuds = {
+                new VerrousDistribues(jdbcTemplate, dialecteSql, 1024, 10_000),
+                new VerrousDistribues(jdbcTemplate, dialecteSql, 1024, 10_000)};
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        ExecutorService fils = Executors.newFixedThreadPool(2 * FILS_PAR_NOEUD);
+        long debut = System.nanoTime();
+        List<Future<?>> taches = new ArrayList<>();
+        for (int f = 0; f < 2 * FILS_PAR_NOEUD; f++) {
+            VerrousDistribues noeud = noeuds[f % 2];
+            taches.add(fils.submit(() -> {
+                for (int op = 0; op < OPERATIONS_PAR_FIL; op++) {
+                    int id = ids.get(ThreadLocalRandom.current().nextInt(REFERENCES));
+                    transaction.executeWithoutResult(s -> {
+                        if (avecVerrous) {
+                            noeud.verrouillerProduits(List.of(id));
+                        }
+                        Integer stock = jdbcTemplate.queryForObject(
+                                "SELECT stock_actuel FROM produit WHERE id = ?", Integer.class, id);
+                        jdbcTemplate.update("UPDATE produit SET stock_actuel = ? WHERE id = ?", stock + 1, id);
+                    });
+                }
+            }));
+        }
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        long duree = System.nanoTime() - debut;
+        fils.shutdown();
+
+        long transactions = 2L * FILS_PAR_NOEUD * OPERATIONS_PAR_FIL;
+        long total = 0;
+        for (int id : ids) {
+            total += jdbcTemplate.queryForObject("SELECT stock_actuel FROM produit WHERE id = ?", Integer.class, id);
+        }
+        long perdues = transactions - total;
+        System.out.printf(Locale.ROOT, "%s;%d;%d;%.0f;%d%n", avecVerrous ? "oui" : "non", transactions,
+                duree / 1_000_000, transactions * 1e9 / duree, perdues);
+        return perdues;
+    }
+}
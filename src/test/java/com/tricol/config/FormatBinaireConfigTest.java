@@ -0,0 +1,57 @@
+package com.tricol.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tricol.dto.CommandeLigneDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatBinaireConfigTest {
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = new FormatBinaireConfig()
+            .cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json())
+            .getObjectMapper();
+
+    private static List<CommandeLigneDTO> lignes(int nombre) {
+        List<CommandeLigneDTO> lignes = new ArrayList<>(nombre);
+        for (int i = 1; i <= nombre; i++) {
+            lignes.add(CommandeLigneDTO.builder()
+                    .id(i)
+                    .commandeId(i / 10)
+                    .produitId(i % 500)
+                    .quantite(1 + i % 50)
+                    .prixAchat(BigDecimal.valueOf(1_000 + i % 9_000, 2))
+                    .build());
+        }
+        return lignes;
+    }
+
+    @Test
+    void testAllerRetourCbor() throws Exception {
+        List<CommandeLigneDTO> lignes = lignes(100);
+
+        byte[] octets = cbor.writeValueAsBytes(lignes);
+        List<CommandeLigneDTO> relues = cbor.readValue(octets, new TypeReference<>() {});
+
+        // prixAchat est en lecture seule côté API : il est écrit mais jamais relu
+        lignes.forEach(l -> l.setPrixAchat(null));
+        assertEquals(lignes, relues);
+    }
+
+    @Test
+    void testCborPlusCompactQueJson() throws Exception {
+        List<CommandeLigneDTO> lignes = lignes(1_000);
+
+        int tailleJson = json.writeValueAsBytes(lignes).length;
+        int tailleCbor = cbor.writeValueAsBytes(lignes).length;
+
+        assertTrue(tailleCbor < tailleJson, "CBOR " + tailleCbor + " octets, JSON " + tailleJson + " octets");
+    }
+}
@@ -0,0 +1,92 @@
+package com.tricol.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Deux bases H2 en mémoire jouent le primaire et le réplica ; chacune contient une table "noeud"
+// qui indique où la requête a réellement été exécutée.
+class RoutageDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    private RoutageDataSource routage(long fenetreMs) {
+        DataSource primaire = noeud("primaire");
+        DataSource replica = noeud("replica");
+        RoutageDataSource routage = new RoutageDataSource(1, "com.tricol.service.", fenetreMs);
+        routage.setTargetDataSources(Map.of(RoutageDataSource.PRIMAIRE, primaire, RoutageDataSource.cleReplica(0), replica));
+        routage.setDefaultTargetDataSource(primaire);
+        routage.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routage);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        return routage;
+    }
+
+    private static DataSource noeud(String nom) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routage-" + nom + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS noeud (nom VARCHAR(20))");
+        jdbc.execute("DELETE FROM noeud");
+        jdbc.update("INSERT INTO noeud VALUES (?)", nom);
+        return dataSource;
+    }
+
+    private String lire(String nomTransaction, boolean lectureSeule) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setName(nomTransaction);
+        transaction.setReadOnly(lectureSeule);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT nom FROM noeud", String.class));
+    }
+
+    @BeforeEach
+    void setUp() {
+        routage(0);
+    }
+
+    @Test
+    void testLectureSeuleDeServiceVaSurLeReplica() {
+        assertEquals("replica", lire("com.tricol.service.ProduitService.getAllProduits", true));
+    }
+
+    @Test
+    void testTransactionEnEcritureVaSurLePrimaire() {
+        assertEquals("primaire", lire("com.tricol.service.ProduitService.createProduit", false));
+    }
+
+    @Test
+    void testLectureSeuleHorsServiceResteSurLePrimaire() {
+        // transaction read-only implicite d'un repository Spring Data
+        assertEquals("primaire", lire("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById", true));
+    }
+
+    @Test
+    void testLectureApresEcritureResteSurLePrimairePendantLaFenetre() {
+        routage(60_000);
+        assertEquals("replica", lire("com.tricol.service.ProduitService.getProduitById", true));
+
+        lire("com.tricol.service.ProduitService.updateProduit", false);
+
+        assertEquals("primaire", lire("com.tricol.service.ProduitService.getProduitById", true));
+    }
+
+    @Test
+    void testConnexionHorsTransactionNOuvrePasLaFenetre() {
+        routage(60_000);
+        // sonde, health check, JdbcTemplate isolé : primaire, sans compter comme une écriture
+        assertEquals("primaire", jdbcTemplate.queryForObject("SELECT nom FROM noeud", String.class));
+
+        assertEquals("replica", lire("com.tricol.service.ProduitService.getProduitById", true));
+    }
+}
@@ -4,7 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tricol.dto.CommandeDTO;
 import com.tricol.dto.FournisseurDTO;
 import com.tricol.enums.StatutCommande;
+import com.tricol.model.Commande;
 import com.tricol.repository.FournisseurRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,10 +19,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,6 +47,9 @@ class CommandeControllerTest {
     @Autowired
     private FournisseurRepository fournisseurRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private int fournisseurId;
 
     @BeforeEach
@@ -157,4 +167,61 @@ class CommandeControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.statut").value("VALIDEE"));
     }
-}
\ No newline at end of file
+
+    // ----------------------------------------------------------
+    // Test : multi-get par ids → ordre de la demande, ids inconnus ignorés, fournisseur non chargé
+    // ----------------------------------------------------------
+    @Test
+    void testGetCommandesByIds() throws Exception {
+        int[] ids = new int[3];
+        StatutCommande[] statuts = {StatutCommande.EN_ATTENTE, StatutCommande.VALIDEE, StatutCommande.LIVREE};
+        for (int i = 0; i < 3; i++) {
+            CommandeDTO dto = new CommandeDTO();
+            dto.setDateCommande(LocalDateTime.now());
+            dto.setStatut(statuts[i]);
+            dto.setFournisseurId(fournisseurId);
+
+            String response = mockMvc.perform(post("/api/commandes")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readValue(response, CommandeDTO.class).getId();
+        }
+        // contexte de persistance vidé : le multi-get relit les commandes en base
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/commandes")
+                        .param("ids", ids[2] + "," + ids[0] + ",999999," + ids[2]))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].statut").value("LIVREE"))
+                .andExpect(jsonPath("$[1].statut").value("EN_ATTENTE"))
+                .andExpect(jsonPath("$[0].fournisseurId").value(fournisseurId));
+        // l'id du fournisseur vient du proxy : aucune requête par fournisseur
+        Commande lue = entityManager.find(Commande.class, ids[2]);
+        assertFalse(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(lue.getFournisseur()));
+
+        mockMvc.perform(post("/api/commandes/recherche")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(ids[1]))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].statut").value("VALIDEE"));
+    }
+
+    @Test
+    void testGetAllFlux_DelaiAsynchronePropreAuFlux() throws Exception {
+        MvcResult flux = mockMvc.perform(get("/api/commandes/flux").param("nbrEelement", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // 10 minutes pour /flux uniquement (tricol.flux.delai-ms), pas de délai global
+        assertEquals(600_000L, flux.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(flux))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.size").value(5));
+    }
+}
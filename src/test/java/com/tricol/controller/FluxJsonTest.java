@@ -0,0 +1,53 @@
+package com.tricol.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FluxJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FluxJson fluxJson = new FluxJson(objectMapper, 600_000);
+
+    // ----------------------------------------------------------------------
+    //  TEST : parcours complet → objet JSON fermé avec le nombre d'éléments
+    // ----------------------------------------------------------------------
+    @Test
+    void testPage_ParcoursComplet_JsonValide() throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        fluxJson.<Map<String, Integer>>page(0, 10, consommateur -> {
+            List.of(1, 2).forEach(id -> consommateur.accept(Map.of("id", id)));
+            return 2;
+        }).writeTo(sortie);
+
+        Map<?, ?> page = objectMapper.readValue(sortie.toByteArray(), Map.class);
+        assertThat(page.get("numberOfElements")).isEqualTo(2);
+        assertThat((List<?>) page.get("content")).hasSize(2);
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : erreur en cours de parcours → relancée, JSON laissé ouvert (jamais une liste courte valide)
+    // ----------------------------------------------------------------------
+    @Test
+    void testPage_ErreurEnCours_RelanceeEtJsonNonTermine() {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> fluxJson.<Map<String, Integer>>page(0, 10, consommateur -> {
+            consommateur.accept(Map.of("id", 1));
+            throw new IllegalStateException("connexion base perdue");
+        }).writeTo(sortie)).isInstanceOf(IllegalStateException.class);
+
+        String envoye = sortie.toString(StandardCharsets.UTF_8);
+        assertThat(envoye).startsWith("{\"content\":[{\"id\":1}");
+        assertThat(envoye).doesNotContain("]");
+        assertThatThrownBy(() -> objectMapper.readTree(envoye)).isInstanceOf(Exception.class);
+    }
+}
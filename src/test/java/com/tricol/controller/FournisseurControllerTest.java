@@ -16,6 +16,8 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -131,4 +133,68 @@ class FournisseurControllerTest {
                 .andExpect(content().string("Fournisseur non trouvé avec id : " + created.getId()));
     }
 
-}
\ No newline at end of file
+    // -----------------------------------------------------------------
+    //  Test : Import CSV dédoublonné par ICE
+    // -----------------------------------------------------------------
+    @Test
+    void testImporterFournisseursCsv() throws Exception {
+        FournisseurDTO existant = new FournisseurDTO();
+        existant.setSociete("Ancienne SARL");
+        existant.setICE("ICEIMPORT1");
+        mockMvc.perform(post("/api/fournisseurs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(existant)))
+                .andExpect(status().isCreated());
+
+        String csv = "societe;ville;ice\n" +
+                "Nouvelle SARL;Rabat;ICEIMPORT1\n" +      // ligne 2 : mise à jour
+                "\"Atlas; Fils\";Fès;ICEIMPORT2\n" +     // ligne 3 : création (séparateur entre guillemets)
+                "Doublon SARL;Fès;ICEIMPORT2\n" +        // ligne 4 : ICE déjà vu dans le fichier
+                "Sans ICE SARL;Tanger;\n";               // ligne 5 : ICE manquant
+
+        mockMvc.perform(post("/api/fournisseurs/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lignes").value(4))
+                .andExpect(jsonPath("$.crees").value(1))
+                .andExpect(jsonPath("$.misAJour").value(1))
+                .andExpect(jsonPath("$.rejetees").value(2))
+                .andExpect(jsonPath("$.conflits[0].ligne").value(4))
+                .andExpect(jsonPath("$.conflits[0].ice").value("ICEIMPORT2"))
+                .andExpect(jsonPath("$.conflits[1].ligne").value(5));
+    }
+
+    // -----------------------------------------------------------------
+    //  Test : multi-get par ids → ordre de la demande, ids inconnus ignorés
+    // -----------------------------------------------------------------
+    @Test
+    void testGetFournisseursByIds() throws Exception {
+        int[] ids = new int[3];
+        for (int i = 0; i < 3; i++) {
+            FournisseurDTO dto = new FournisseurDTO();
+            dto.setSociete("Multi SARL " + i);
+
+            String response = mockMvc.perform(post("/api/fournisseurs")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readValue(response, FournisseurDTO.class).getId();
+        }
+
+        mockMvc.perform(get("/api/fournisseurs")
+                        .param("ids", ids[2] + "," + ids[0] + ",999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].societe").value("Multi SARL 2"))
+                .andExpect(jsonPath("$[1].societe").value("Multi SARL 0"));
+
+        mockMvc.perform(post("/api/fournisseurs/recherche")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(ids[1]))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].societe").value("Multi SARL 1"));
+    }
+}
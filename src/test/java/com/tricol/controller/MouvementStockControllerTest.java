@@ -20,6 +20,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -67,7 +68,7 @@ class MouvementStockControllerTest {
                         .fournisseur(fournisseur)
                         .statut(StatutCommande.EN_ATTENTE)
                         .dateCommande(LocalDateTime.now())
-                        .montantTotal(0.0)
+                        .montantTotal(BigDecimal.ZERO)
                         .build()
         );
 
@@ -10,11 +10,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -39,7 +43,7 @@ class ProduitControllerTest {
         ProduitDTO dto = ProduitDTO.builder()
                 .nom("Laptop")
                 .description("Laptop Dell Inspiron")
-                .prixUnitaire(8000.0)
+                .prixUnitaire(new BigDecimal("8000.00"))
                 .categorie("Informatique")
                 .stockActuel(10)
                 .build();
@@ -62,7 +66,7 @@ class ProduitControllerTest {
         ProduitDTO dto = ProduitDTO.builder()
                 .nom("Smartphone")
                 .description("Samsung Galaxy")
-                .prixUnitaire(4000.0)
+                .prixUnitaire(new BigDecimal("4000.00"))
                 .categorie("Téléphonie")
                 .stockActuel(20)
                 .build();
@@ -93,7 +97,7 @@ class ProduitControllerTest {
             ProduitDTO dto = ProduitDTO.builder()
                     .nom("Produit " + i)
                     .description("Description " + i)
-                    .prixUnitaire(100.0 * i)
+                    .prixUnitaire(BigDecimal.valueOf(100L * i, 0))
                     .categorie("Catégorie " + i)
                     .stockActuel(5 * i)
                     .build();
@@ -114,4 +118,68 @@ class ProduitControllerTest {
                 .andExpect(jsonPath("$.content[1].nom").value("Produit 2"))
                 .andExpect(jsonPath("$.content[2].nom").value("Produit 3"));
     }
-}
\ No newline at end of file
+
+    // -----------------------------------------------------------------
+    //  Test : GET conditionnel → 304 quand rien n'a changé
+    // -----------------------------------------------------------------
+    @Test
+    void testGetProduitById_IfNoneMatch_Renvoie304() throws Exception {
+        ProduitDTO dto = ProduitDTO.builder()
+                .nom("Tablette")
+                .prixUnitaire(new BigDecimal("2500.00"))
+                .stockActuel(3)
+                .build();
+
+        String response = mockMvc.perform(post("/api/produits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        ProduitDTO created = objectMapper.readValue(response, ProduitDTO.class);
+
+        String etag = mockMvc.perform(get("/api/produits/{id}", created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/produits/{id}", created.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    // -----------------------------------------------------------------
+    //  Test : multi-get par ids → ordre de la demande, ids inconnus ignorés
+    // -----------------------------------------------------------------
+    @Test
+    void testGetProduitsByIds() throws Exception {
+        int[] ids = new int[3];
+        for (int i = 0; i < 3; i++) {
+            ProduitDTO dto = ProduitDTO.builder()
+                    .nom("Multi " + i)
+                    .prixUnitaire(BigDecimal.valueOf(10L * (i + 1), 0))
+                    .stockActuel(1)
+                    .build();
+            String response = mockMvc.perform(post("/api/produits")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readValue(response, ProduitDTO.class).getId();
+        }
+
+        mockMvc.perform(get("/api/produits")
+                        .param("ids", ids[2] + "," + ids[0] + ",999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].nom").value("Multi 2"))
+                .andExpect(jsonPath("$[1].nom").value("Multi 0"));
+
+        mockMvc.perform(post("/api/produits/recherche")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(ids[1]))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nom").value("Multi 1"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.tricol.generation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pas de transaction de test : le générateur écrit par batchs JDBC sur la base partagée,
+// les vérifications ne portent que sur les lignes au-delà des ids existants avant le lancement
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class GenerateurDonneesTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ---------------------------------------------------------------------
+    // TEST : volumes demandés et liens entre les lignes générées, sur plusieurs batchs (dont un partiel)
+    // ---------------------------------------------------------------------
+    @Test
+    void testRun_VolumesEtLiens() {
+        // Given
+        long fournisseurAvant = maxId("fournisseur");
+        long produitAvant = maxId("produit");
+        long commandeAvant = maxId("commandes");
+        long ligneAvant = maxId("commandes_lignes");
+        long mouvementAvant = maxId("mouvements_stock");
+
+        // When : 20 fournisseurs, 50 produits, 120 commandes par batchs de 25
+        new GenerateurDonnees(jdbcTemplate, 20, 50, 120, 600, 60, 25, 30, 7).run();
+
+        // Then : volumes
+        assertThat(compter("SELECT COUNT(*) FROM fournisseur WHERE id > ?", fournisseurAvant)).isEqualTo(20);
+        assertThat(compter("SELECT COUNT(*) FROM produit WHERE id > ?", produitAvant)).isEqualTo(50);
+        assertThat(compter("SELECT COUNT(*) FROM commandes WHERE id > ?", commandeAvant)).isEqualTo(120);
+        // au moins une ligne par commande
+        assertThat(compter("SELECT COUNT(*) FROM commandes_lignes WHERE id > ?", ligneAvant)).isGreaterThanOrEqualTo(120);
+        assertThat(compter("SELECT COUNT(DISTINCT id_commande) FROM commandes_lignes WHERE id > ?", ligneAvant)).isEqualTo(120);
+
+        // liens : uniquement vers des lignes générées par ce lancement
+        assertThat(compter("SELECT COUNT(*) FROM commandes WHERE id > ? AND id_fournisseur <= ?",
+                commandeAvant, fournisseurAvant)).isZero();
+        assertThat(compter("SELECT COUNT(*) FROM commandes_lignes WHERE id > ? AND (id_commande <= ? OR id_produit <= ?)",
+                ligneAvant, commandeAvant, produitAvant)).isZero();
+        // montant_total de chaque commande = somme de ses propres lignes
+        assertThat(compter("SELECT COUNT(*) FROM commandes c WHERE c.id > ? AND c.montant_total <> "
+                + "(SELECT SUM(l.quantite * l.prix_achat) FROM commandes_lignes l WHERE l.id_commande = c.id)",
+                commandeAvant)).isZero();
+        // mouvements seulement sur les commandes livrées générées
+        assertThat(compter("SELECT COUNT(*) FROM mouvements_stock m JOIN commandes c ON c.id = m.id_commande "
+                + "WHERE m.id > ? AND (c.id <= ? OR c.statut <> 'LIVREE')", mouvementAvant, commandeAvant)).isZero();
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private long compter(String sql, Object... parametres) {
+        return jdbcTemplate.queryForObject(sql, Long.class, parametres);
+    }
+}
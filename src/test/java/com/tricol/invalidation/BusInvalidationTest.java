@@ -0,0 +1,120 @@
+package com.tricol.invalidation;
+
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.service.CacheVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Deux instances simulées : chacune son cache de versions et son bus, un transport en mémoire partagé
+class BusInvalidationTest {
+
+    private TransportMemoire transport;
+    private CacheVersionService cacheA;
+    private CacheVersionService cacheB;
+    private BusInvalidation busA;
+    private BusInvalidation busB;
+
+    @BeforeEach
+    void setUp() {
+        transport = new TransportMemoire();
+        cacheA = new CacheVersionService(1_000);
+        cacheB = new CacheVersionService(1_000);
+        busA = new BusInvalidation(transport, cacheA, true, 100);
+        busB = new BusInvalidation(transport, cacheB, true, 100);
+        busA.demarrer();
+        busB.demarrer();
+    }
+
+    private void enCache(CacheVersionService cache, TypeEntite type, int id) {
+        cache.enregistrer(type, id, 1L, cache.generation(type));
+    }
+
+    @Test
+    void testEcritureSurUnNoeudInvalideLAutre() {
+        enCache(cacheB, TypeEntite.PRODUIT, 1);
+        enCache(cacheB, TypeEntite.PRODUIT, 2);
+        enCache(cacheA, TypeEntite.PRODUIT, 1);
+        long generationB = cacheB.generation(TypeEntite.PRODUIT);
+
+        busA.onEntiteModifiee(new EntiteModifieeEvent(TypeEntite.PRODUIT, 1));
+        assertNotNull(cacheB.etat(TypeEntite.PRODUIT, 1), "rien ne part avant le vidage");
+        busA.vider();
+
+        assertNull(cacheB.etat(TypeEntite.PRODUIT, 1));
+        assertNotNull(cacheB.etat(TypeEntite.PRODUIT, 2));
+        assertTrue(cacheB.generation(TypeEntite.PRODUIT) > generationB, "ETag de collection renouvelé");
+        // l'émetteur ignore son propre message : son cache est invalidé par CacheVersionService
+        assertNotNull(cacheA.etat(TypeEntite.PRODUIT, 1));
+    }
+
+    @Test
+    void testRafaleFondueEnUnMessage() {
+        for (int i = 0; i < 1_000; i++) {
+            busA.onEntiteModifiee(new EntiteModifieeEvent(TypeEntite.FOURNISSEUR, i % 10));
+            busA.onEntiteModifiee(new EntiteModifieeEvent(TypeEntite.PRODUIT, 7));
+        }
+        List<String> recus = new ArrayList<>();
+        transport.abonner(recus::add, () -> { });
+
+        busA.vider();
+        busA.vider();
+
+        assertEquals(1, transport.publies());
+        String[] parties = recus.get(0).split(";");
+        assertEquals(3, parties.length);
+        assertEquals("PRODUIT:7", parties[1]);
+        assertEquals("FOURNISSEUR:0,1,2,3,4,5,6,7,8,9", trier(parties[2]));
+    }
+
+    @Test
+    void testAuDelaDuSeuilToutLeTypeEstInvalide() {
+        enCache(cacheB, TypeEntite.COMMANDE, 5_000);
+        for (int i = 0; i < 101; i++) {
+            busA.onEntiteModifiee(new EntiteModifieeEvent(TypeEntite.COMMANDE, i));
+        }
+        List<String> recus = new ArrayList<>();
+        transport.abonner(recus::add, () -> { });
+
+        busA.vider();
+
+        assertTrue(recus.get(0).endsWith(";COMMANDE:*"));
+        assertNull(cacheB.etat(TypeEntite.COMMANDE, 5_000));
+    }
+
+    @Test
+    void testGrosLotDecoupeSousLaLimiteDeNotify() {
+        Set<Integer> ids = new TreeSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            ids.add(1_000_000 + i);
+        }
+        List<String> messages = busA.messages(Map.of(TypeEntite.PRODUIT, ids));
+
+        assertTrue(messages.size() > 1);
+        Set<Integer> relus = new TreeSet<>();
+        for (String message : messages) {
+            assertTrue(message.length() <= BusInvalidation.TAILLE_MAX_MESSAGE);
+            for (String id : message.split(";")[1].substring("PRODUIT:".length()).split(",")) {
+                relus.add(Integer.valueOf(id));
+            }
+        }
+        assertEquals(ids, relus);
+    }
+
+    private static String trier(String partie) {
+        String[] typeEtIds = partie.split(":");
+        Set<Integer> ids = new TreeSet<>();
+        for (String id : typeEtIds[1].split(",")) {
+            ids.add(Integer.valueOf(id));
+        }
+        return typeEtIds[0] + ":" + String.join(",", ids.stream().map(String::valueOf).toList());
+    }
+}
@@ -0,0 +1,118 @@
+package com.tricol.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Repli local (H2) : mêmes garanties d'exclusion et d'ordre que les verrous consultatifs PostgreSQL,
+// à l'intérieur d'une seule JVM. Le comportement entre instances est mesuré par VerrousDistribuesChargeTest.
+class VerrousDistribuesTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:verrous;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    private VerrousDistribues verrous(long attenteMs) {
+        return new VerrousDistribues(jdbcTemplate, new DialecteSql(jdbcTemplate), 64, attenteMs);
+    }
+
+    @Test
+    void testVerrouTenuJusquaLaFinDeLaTransaction() throws Exception {
+        VerrousDistribues verrous = verrous(5_000);
+        CountDownLatch pris = new CountDownLatch(1);
+        AtomicBoolean premiereTerminee = new AtomicBoolean();
+
+        ExecutorService fils = Executors.newFixedThreadPool(2);
+        Future<?> premiere = fils.submit(() -> transaction.executeWithoutResult(s -> {
+            verrous.verrouillerProduits(List.of(7));
+            pris.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            premiereTerminee.set(true);
+        }));
+        pris.await();
+        Future<Boolean> seconde = fils.submit(() -> transaction.execute(s -> {
+            verrous.verrouillerProduits(List.of(7));
+            return premiereTerminee.get();
+        }));
+
+        premiere.get();
+        assertTrue(seconde.get(), "la seconde transaction n'obtient le verrou qu'après la fin de la première");
+        fils.shutdown();
+    }
+
+    @Test
+    void testOrdreDAppelIndifferentSansInterblocage() throws Exception {
+        VerrousDistribues verrous = verrous(2_000);
+        AtomicInteger compteur = new AtomicInteger();
+        ExecutorService fils = Executors.newFixedThreadPool(8);
+        List<Future<?>> taches = new CopyOnWriteArrayList<>();
+        for (int f = 0; f < 8; f++) {
+            // la moitié des fils demande [1, 2], l'autre [2, 1]
+            List<Integer> produits = f % 2 == 0 ? List.of(1, 2) : List.of(2, 1);
+            taches.add(fils.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    transaction.executeWithoutResult(s -> {
+                        verrous.verrouillerCommandes(List.of(100));
+                        verrous.verrouillerProduits(produits);
+                        compteur.incrementAndGet();
+                    });
+                }
+            }));
+        }
+        for (Future<?> tache : taches) {
+            tache.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(4_000, compteur.get());
+        fils.shutdown();
+    }
+
+    @Test
+    void testAttenteBornee() throws Exception {
+        VerrousDistribues verrous = verrous(50);
+        CountDownLatch pris = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(1);
+        Thread detenteur = new Thread(() -> transaction.executeWithoutResult(s -> {
+            verrous.verrouillerCommandes(List.of(3));
+            pris.countDown();
+            try {
+                fin.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        detenteur.start();
+        pris.await();
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> transaction.executeWithoutResult(s -> verrous.verrouillerCommandes(List.of(3))));
+        assertTrue(ex.getMessage().contains("Ressource occupée"));
+
+        fin.countDown();
+        detenteur.join();
+    }
+
+    @Test
+    void testHorsTransactionRefuse() {
+        assertThrows(IllegalStateException.class, () -> verrous(50).verrouillerProduits(List.of(1)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.tricol.service;
+
+import com.tricol.dto.AlerteStockDTO;
+import com.tricol.enums.TypeEntite;
+import com.tricol.event.EntiteModifieeEvent;
+import com.tricol.event.StockModifieEvent;
+import com.tricol.model.Produit;
+import com.tricol.repository.ProduitRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlerteStockServiceTest {
+
+    @Mock private ProduitRepository produitRepository;
+
+    @InjectMocks private AlerteStockService alerteStockService;
+
+    // ----------------------------------------------------------------------
+    //  TEST : chargement initial puis mises à jour incrémentales
+    // ----------------------------------------------------------------------
+    @Test
+    void testAlertes_ChargementPuisMutations() {
+        // Given : un produit déjà sous son seuil au démarrage
+        given(produitRepository.findEnAlerte()).willReturn(List.of(
+                Produit.builder().id(1).nom("Clavier").stockActuel(2).seuilAlerte(5).build()));
+        alerteStockService.charger();
+
+        // When : un autre passe sous le seuil, le premier est réapprovisionné
+        alerteStockService.onStockModifie(new StockModifieEvent(2, "Souris", 0, 10));
+        alerteStockService.onStockModifie(new StockModifieEvent(1, "Clavier", 50, 5));
+        alerteStockService.onStockModifie(new StockModifieEvent(3, "Écran", 1, null));
+
+        // Then
+        List<AlerteStockDTO> alertes = alerteStockService.getAlertes();
+        assertThat(alertes).extracting(AlerteStockDTO::getProduitId).containsExactly(2);
+        then(produitRepository).should(times(1)).findEnAlerte();
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : suppression d'un produit en alerte
+    // ----------------------------------------------------------------------
+    @Test
+    void testAlertes_ProduitSupprime_RetireDeLIndex() {
+        alerteStockService.onStockModifie(new StockModifieEvent(7, "Câble", 0, 3));
+        given(produitRepository.existsById(7)).willReturn(false);
+
+        alerteStockService.onEntiteModifiee(new EntiteModifieeEvent(TypeEntite.PRODUIT, 7));
+
+        assertThat(alerteStockService.getAlertes()).isEmpty();
+    }
+}
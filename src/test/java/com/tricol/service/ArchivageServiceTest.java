@@ -0,0 +1,85 @@
+package com.tricol.service;
+
+import com.tricol.dto.ArchivageRapportDTO;
+import com.tricol.dto.CommandeArchiveDTO;
+import com.tricol.enums.StatutCommande;
+import com.tricol.enums.TypeMouvement;
+import com.tricol.model.Commande;
+import com.tricol.model.CommandeLigne;
+import com.tricol.model.Fournisseur;
+import com.tricol.model.MouvementStock;
+import com.tricol.model.Produit;
+import com.tricol.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pas de transaction de test : chaque lot d'archivage valide la sienne
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"tricol.archivage.taille-lot=1", "tricol.archivage.pause-ms=0"})
+@ActiveProfiles("test")
+class ArchivageServiceTest {
+
+    @Autowired private ArchivageService archivageService;
+    @Autowired private ArchiveService archiveService;
+    @Autowired private FournisseurRepository fournisseurRepository;
+    @Autowired private ProduitRepository produitRepository;
+    @Autowired private CommandeRepository commandeRepository;
+    @Autowired private CommandeLigneRepository commandeLigneRepository;
+    @Autowired private MouvementStockRepository mouvementStockRepository;
+
+    private Commande commande(Fournisseur fournisseur, Produit produit, StatutCommande statut, LocalDateTime date) {
+        Commande commande = commandeRepository.save(Commande.builder().fournisseur(fournisseur).statut(statut)
+                .dateCommande(date).montantTotal(new BigDecimal("50.00")).build());
+        commandeLigneRepository.save(CommandeLigne.builder().commande(commande).produit(produit)
+                .quantite(5).prixAchat(new BigDecimal("10.00")).build());
+        mouvementStockRepository.save(MouvementStock.builder().commande(commande).typeMouvement(TypeMouvement.ENTREE)
+                .quantite(5).dateMouvement(date.toLocalDate()).build());
+        return commande;
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : seules les commandes closes et anciennes quittent les tables actives
+    // ---------------------------------------------------------------------
+    @Test
+    void testArchiver_DeplaceLesCommandesClosesAnciennes() {
+        // Given
+        Fournisseur fournisseur = fournisseurRepository.save(Fournisseur.builder().societe("Archive SARL").ICE("ICEARCHIVE").build());
+        Produit produit = produitRepository.save(Produit.builder().nom("Produit archive").prixUnitaire(new BigDecimal("10.00")).build());
+        LocalDateTime ancienne = LocalDateTime.now().minusYears(2);
+        Commande livree = commande(fournisseur, produit, StatutCommande.LIVREE, ancienne);
+        Commande annulee = commande(fournisseur, produit, StatutCommande.ANNULEE, ancienne);
+        Commande enCours = commande(fournisseur, produit, StatutCommande.VALIDEE, ancienne);
+        Commande recente = commande(fournisseur, produit, StatutCommande.LIVREE, LocalDateTime.now());
+
+        // When : lots d'une commande, donc plusieurs lots
+        ArchivageRapportDTO rapport = archivageService.archiver();
+
+        // Then
+        assertThat(rapport.getErreur()).isNull();
+        assertThat(rapport.getCommandes()).isEqualTo(2);
+        assertThat(rapport.getLignes()).isEqualTo(2);
+        assertThat(rapport.getMouvements()).isEqualTo(2);
+        assertThat(rapport.getLots()).isEqualTo(2);
+        assertThat(commandeRepository.existsById(livree.getId())).isFalse();
+        assertThat(commandeRepository.existsById(annulee.getId())).isFalse();
+        assertThat(commandeRepository.existsById(enCours.getId())).isTrue();
+        assertThat(commandeRepository.existsById(recente.getId())).isTrue();
+
+        CommandeArchiveDTO archivee = archiveService.getCommande(livree.getId());
+        assertThat(archivee.getStatut()).isEqualTo(StatutCommande.LIVREE);
+        assertThat(archivee.getFournisseurId()).isEqualTo(fournisseur.getId());
+        assertThat(archivee.getLignes()).singleElement()
+                .satisfies(l -> assertThat(l.getProduitId()).isEqualTo(produit.getId()));
+        assertThat(archivee.getMouvements()).singleElement()
+                .satisfies(m -> assertThat(m.getDateMouvement()).isEqualTo(LocalDate.from(ancienne).toString()));
+        assertThat(archiveService.getCommandes(fournisseur.getId(), 0, 10).getTotalElements()).isEqualTo(2);
+    }
+}
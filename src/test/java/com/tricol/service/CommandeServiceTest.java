@@ -4,8 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 
 import com.tricol.dto.CommandeDTO;
+import com.tricol.dto.CommandeDetailDTO;
+import com.tricol.dto.LigneDetailDTO;
 import com.tricol.dto.MouvementStockDTO;
 import com.tricol.enums.StatutCommande;
+import com.tricol.mapper.CommandeLigneMapper;
 import com.tricol.mapper.CommandeMapper;
 import com.tricol.model.Commande;
 import com.tricol.model.CommandeLigne;
@@ -15,6 +18,8 @@ import com.tricol.repository.CommandeLigneRepository;
 import com.tricol.repository.CommandeRepository;
 import com.tricol.repository.FournisseurRepository;
 import com.tricol.repository.ProduitRepository;
+import com.tricol.repository.VerrousDistribues;
+import com.tricol.stock.MoteurStock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +27,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -39,6 +49,11 @@ class CommandeServiceTest {
     @Mock private CommandeLigneRepository commandeLigneRepository;
     @Mock private ProduitRepository produitRepository;
     @Mock private MouvementStockService mouvementStockService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private CommandeLigneMapper commandeLigneMapper;
+    @Mock private MoteurStock moteurStock;
+    @Mock private ReservationService reservationService;
+    @Mock private VerrousDistribues verrousDistribues;
 
     @InjectMocks private CommandeService commandeService;
 
@@ -157,4 +172,56 @@ class CommandeServiceTest {
         // Aucun mouvement ne doit être créé
         then(mouvementStockService).shouldHaveNoInteractions();
     }
-}
\ No newline at end of file
+
+    // ---------------------------------------------------------------------
+    // 4. TEST : PUT rejoué sur une commande déjà LIVREE → pas de double déstockage
+    // ---------------------------------------------------------------------
+    @Test
+    void testUpdateCommande_DejaLivree_NeRetraitePasLaLivraison() {
+        // Given : la commande est déjà livrée et le client renvoie le même PUT
+        commande.setStatut(StatutCommande.LIVREE);
+        commandeDTO.setStatut(StatutCommande.LIVREE);
+
+        given(commandeRepository.findById(10)).willReturn(Optional.of(commande));
+        given(fournisseurRepository.findById(1)).willReturn(Optional.of(fournisseur));
+        given(commandeRepository.save(commande)).willReturn(commande);
+        given(commandeMapper.toDTO(commande)).willReturn(commandeDTO);
+
+        // When
+        commandeService.updateCommande(10, commandeDTO);
+
+        // Then
+        then(commandeLigneRepository).shouldHaveNoInteractions();
+        then(produitRepository).shouldHaveNoInteractions();
+        then(mouvementStockService).shouldHaveNoInteractions();
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : Détail de commande → en-tête + tranche de lignes, sans requête count
+    // ---------------------------------------------------------------------
+    @Test
+    void testGetDetail_RetourneEnTeteEtTrancheDeLignes() {
+        fournisseur.setSociete("Fournisseur A");
+        commande.setFournisseur(fournisseur);
+
+        Produit produit = new Produit();
+        produit.setId(5);
+        CommandeLigne ligne = new CommandeLigne();
+        ligne.setProduit(produit);
+        ligne.setQuantite(3);
+        LigneDetailDTO ligneDTO = LigneDetailDTO.builder().produitId(5).quantite(3).build();
+
+        Pageable tranche = PageRequest.of(0, 2, Sort.by("id").ascending());
+        given(commandeRepository.findAvecFournisseurById(10)).willReturn(Optional.of(commande));
+        given(commandeLigneRepository.findTrancheByCommandeId(10, tranche))
+                .willReturn(new SliceImpl<>(List.of(ligne), tranche, true));
+        given(commandeLigneMapper.toDetail(ligne)).willReturn(ligneDTO);
+
+        CommandeDetailDTO detail = commandeService.getDetail(10, 0, 2);
+
+        assertThat(detail.getFournisseurSociete()).isEqualTo("Fournisseur A");
+        assertThat(detail.getLignes()).containsExactly(ligneDTO);
+        assertThat(detail.isSuivante()).isTrue();
+        then(commandeLigneRepository).should(never()).findByCommande(any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.tricol.service;
+
+import com.tricol.dto.ImportFournisseursDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pas de transaction de test : chaque lot de l'import valide la sienne, comme en production
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class FournisseurImportServiceTest {
+
+    @Autowired
+    private FournisseurImportService fournisseurImportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ---------------------------------------------------------------------
+    // TEST : un en-tête partiel ne met à jour que ses colonnes ; créés et mis à jour comptés à l'écriture
+    // ---------------------------------------------------------------------
+    @Test
+    void testImporter_EnTetePartiel_ColonnesAbsentesConservees() {
+        // Given
+        fournisseurImportService.importer(csv("""
+                societe,adresse,contact,email,telephone,ville,ice
+                Atlas Emballage,12 rue Allal,Karim,karim@atlas.ma,0600000001,Casablanca,ICEPART000001
+                """), FournisseurImportService.Format.CSV);
+
+        // When : ni adresse, ni contact, ni email, ni téléphone dans le second fichier
+        ImportFournisseursDTO rapport = fournisseurImportService.importer(csv("""
+                ice;societe;ville
+                ICEPART000001;Atlas Emballage SA;Rabat
+                ICEPART000002;Rif Textile;
+                """), FournisseurImportService.Format.CSV);
+
+        // Then
+        assertThat(rapport.getCrees()).isEqualTo(1);
+        assertThat(rapport.getMisAJour()).isEqualTo(1);
+        assertThat(rapport.getRejetees()).isZero();
+
+        Map<String, Object> existant = fournisseur("ICEPART000001");
+        assertThat(existant.get("societe")).isEqualTo("Atlas Emballage SA");
+        assertThat(existant.get("ville")).isEqualTo("Rabat");
+        assertThat(existant.get("adresse")).isEqualTo("12 rue Allal");
+        assertThat(existant.get("email")).isEqualTo("karim@atlas.ma");
+        assertThat(existant.get("telephone")).isEqualTo("0600000001");
+
+        Map<String, Object> cree = fournisseur("ICEPART000002");
+        assertThat(cree.get("societe")).isEqualTo("Rif Textile");
+        assertThat(cree.get("ville")).isNull();
+    }
+
+    private Map<String, Object> fournisseur(String ice) {
+        return jdbcTemplate.queryForMap("SELECT * FROM fournisseur WHERE ice = ?", ice);
+    }
+
+    private static InputStream csv(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 
 import java.util.List;
@@ -31,6 +32,12 @@ class FournisseurServiceTest {
     @Mock
     private FournisseurMapper fournisseurMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FournisseurSuppressionService fournisseurSuppressionService;
+
     @InjectMocks
     private FournisseurService fournisseurService;
 
@@ -161,7 +168,8 @@ class FournisseurServiceTest {
         // When
         fournisseurService.deleteFournisseur(1);
 
-        // Then
-        then(fournisseurRepository).should().deleteById(1);
+        // Then : commandes, lignes et mouvements partent avec le fournisseur, par tranches
+        then(fournisseurSuppressionService).should().supprimer(1);
+        then(fournisseurRepository).shouldHaveNoInteractions();
     }
 }
\ No newline at end of file
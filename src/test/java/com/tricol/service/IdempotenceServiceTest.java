@@ -0,0 +1,135 @@
+package com.tricol.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tricol.exception.CleIdempotenceReutiliseeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotenceServiceTest {
+
+    private final IdempotenceService idempotenceService = new IdempotenceService(new ObjectMapper(), 2);
+
+    // ----------------------------------------------------------------------
+    //  TEST : même clé → l'action n'est exécutée qu'une fois
+    // ----------------------------------------------------------------------
+    @Test
+    void testExecuter_MemeCle_ExecuteUneSeuleFois() {
+        AtomicInteger appels = new AtomicInteger();
+
+        Integer premier = idempotenceService.executer("PUT /api/commandes/1", "k1", "corps", appels::incrementAndGet);
+        Integer rejeu = idempotenceService.executer("PUT /api/commandes/1", "k1", "corps", appels::incrementAndGet);
+
+        assertThat(premier).isEqualTo(1);
+        assertThat(rejeu).isEqualTo(1);
+        assertThat(appels.get()).isEqualTo(1);
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : sans clé → pas de déduplication
+    // ----------------------------------------------------------------------
+    @Test
+    void testExecuter_SansCle_ExecuteAChaqueFois() {
+        AtomicInteger appels = new AtomicInteger();
+
+        idempotenceService.executer("POST /api/produits", null, "corps", appels::incrementAndGet);
+        idempotenceService.executer("POST /api/produits", null, "corps", appels::incrementAndGet);
+
+        assertThat(appels.get()).isEqualTo(2);
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : un échec libère la clé pour une nouvelle tentative
+    // ----------------------------------------------------------------------
+    @Test
+    void testExecuter_Echec_PermetNouvelleTentative() {
+        assertThrows(RuntimeException.class, () -> idempotenceService.executer("POST /api/commandes", "k2", "corps", () -> {
+            throw new RuntimeException("Stock insuffisant");
+        }));
+
+        String resultat = idempotenceService.executer("POST /api/commandes", "k2", "corps", () -> "ok");
+
+        assertThat(resultat).isEqualTo("ok");
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : une Error libère aussi la clé (sinon les rejeux attendraient indéfiniment)
+    // ----------------------------------------------------------------------
+    @Test
+    void testExecuter_Error_PermetNouvelleTentative() {
+        assertThrows(StackOverflowError.class, () -> idempotenceService.executer("POST /api/commandes", "k3", "corps", () -> {
+            throw new StackOverflowError();
+        }));
+
+        String resultat = idempotenceService.executer("POST /api/commandes", "k3", "corps", () -> "ok");
+
+        assertThat(resultat).isEqualTo("ok");
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : le store est borné (les clés les plus anciennes sont évincées)
+    // ----------------------------------------------------------------------
+    @Test
+    void testExecuter_CapaciteAtteinte_EvinceLaPlusAncienne() {
+        AtomicInteger appels = new AtomicInteger();
+
+        idempotenceService.executer("op", "a", "corps", appels::incrementAndGet);
+        idempotenceService.executer("op", "b", "corps", appels::incrementAndGet);
+        idempotenceService.executer("op", "c", "corps", appels::incrementAndGet);
+        idempotenceService.executer("op", "a", "corps", appels::incrementAndGet);
+
+        assertThat(appels.get()).isEqualTo(4);
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : même clé, corps différent → refusé sans exécuter l'action
+    // ----------------------------------------------------------------------
+    @Test
+    void testExecuter_MemeCleCorpsDifferent_Refuse() {
+        AtomicInteger appels = new AtomicInteger();
+        idempotenceService.executer("POST /api/commandes/livraisons", "k4", List.of(1, 2), appels::incrementAndGet);
+
+        assertThrows(CleIdempotenceReutiliseeException.class, () ->
+                idempotenceService.executer("POST /api/commandes/livraisons", "k4", List.of(1, 3), appels::incrementAndGet));
+
+        assertThat(appels.get()).isEqualTo(1);
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : une exécution en cours n'est pas évincée quand la capacité est dépassée
+    // ----------------------------------------------------------------------
+    @Test
+    void testExecuter_CapaciteAtteinte_NEvincePasUneExecutionEnCours() throws Exception {
+        AtomicInteger appels = new AtomicInteger();
+        CountDownLatch demarree = new CountDownLatch(1);
+        CountDownLatch liberee = new CountDownLatch(1);
+        CompletableFuture<Integer> lente = CompletableFuture.supplyAsync(() ->
+                idempotenceService.executer("op", "lente", "corps", () -> {
+                    demarree.countDown();
+                    try {
+                        liberee.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return appels.incrementAndGet();
+                }));
+        demarree.await();
+
+        idempotenceService.executer("op", "b", "corps", () -> 0);
+        idempotenceService.executer("op", "c", "corps", () -> 0);
+        CompletableFuture<Integer> rejeu = CompletableFuture.supplyAsync(() ->
+                idempotenceService.executer("op", "lente", "corps", appels::incrementAndGet));
+        liberee.countDown();
+
+        assertThat(lente.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(rejeu.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(appels.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.tricol.service;
+
+import com.tricol.dto.LivraisonLotDTO;
+import com.tricol.enums.StatutCommande;
+import com.tricol.event.StockModifieEvent;
+import com.tricol.model.Commande;
+import com.tricol.model.CommandeLigne;
+import com.tricol.model.Produit;
+import com.tricol.repository.CommandeLigneRepository;
+import com.tricol.repository.CommandeRepository;
+import com.tricol.repository.VerrousDistribues;
+import com.tricol.stock.MoteurStock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LivraisonServiceTest {
+
+    @Mock private CommandeRepository commandeRepository;
+    @Mock private CommandeLigneRepository commandeLigneRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private MoteurStock moteurStock;
+    @Mock private ReservationService reservationService;
+    @Mock private VerrousDistribues verrousDistribues;
+
+    @InjectMocks private LivraisonService livraisonService;
+
+    private Produit produit;
+    private Commande c1;
+    private Commande c2;
+
+    @BeforeEach
+    void setUp() {
+        produit = Produit.builder().id(5).nom("Clavier").stockActuel(15).build();
+        c1 = Commande.builder().id(1).statut(StatutCommande.VALIDEE).build();
+        c2 = Commande.builder().id(2).statut(StatutCommande.VALIDEE).build();
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : deux commandes partagent un produit → la seconde manque de stock
+    // ---------------------------------------------------------------------
+    @Test
+    void testLivrerCommandes_StockPartage_SecondeCommandeEnEchec() {
+        // Given
+        CommandeLigne l1 = CommandeLigne.builder().id(11).commande(c1).produit(produit).quantite(10).build();
+        CommandeLigne l2 = CommandeLigne.builder().id(12).commande(c2).produit(produit).quantite(10).build();
+
+        given(commandeRepository.findAllById(List.of(1, 2))).willReturn(List.of(c1, c2));
+        given(commandeLigneRepository.findByCommandeIdIn(List.of(1, 2))).willReturn(List.of(l1, l2));
+        given(jdbcTemplate.batchUpdate(anyString(), anyList())).willReturn(new int[]{1});
+        // une autre transaction a retiré 2 unités depuis la lecture du lot : 15 - 2 - 10 = 3 en base
+        willAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            given(rs.getInt(1)).willReturn(5);
+            given(rs.getInt(2)).willReturn(3);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).given(jdbcTemplate).query(startsWith("SELECT id, stock_actuel"), any(RowCallbackHandler.class), any(Object[].class));
+
+        // When
+        LivraisonLotDTO lot = livraisonService.livrerCommandes(List.of(1, 2));
+
+        // Then
+        assertThat(lot.getLivrees()).isEqualTo(1);
+        assertThat(lot.getEchecs()).isEqualTo(1);
+        assertThat(lot.getResultats().get(1).getMessage()).contains("Stock insuffisant");
+        assertThat(c1.getStatut()).isEqualTo(StatutCommande.LIVREE);
+        assertThat(c2.getStatut()).isEqualTo(StatutCommande.VALIDEE);
+
+        // un seul UPDATE agrégé (produit 5, -10, rien de réservé) et un seul mouvement
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        then(jdbcTemplate).should(times(2)).batchUpdate(anyString(), captor.capture());
+        assertThat(captor.getAllValues().get(0)).hasSize(1);
+        assertThat(captor.getAllValues().get(0).get(0)).containsExactly(10, 0, 5, 10);
+        assertThat(captor.getAllValues().get(1)).hasSize(1);
+
+        // l'événement de stock porte la valeur relue après l'UPDATE, pas celle calculée en mémoire (5)
+        ArgumentCaptor<Object> evenements = ArgumentCaptor.forClass(Object.class);
+        then(eventPublisher).should(atLeastOnce()).publishEvent(evenements.capture());
+        assertThat(evenements.getAllValues()).filteredOn(StockModifieEvent.class::isInstance)
+                .extracting(e -> ((StockModifieEvent) e).getStockActuel())
+                .containsExactly(3);
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : commande déjà livrée ou introuvable → aucun déstockage
+    // ---------------------------------------------------------------------
+    @Test
+    void testLivrerCommandes_DejaLivreeOuIntrouvable_AucuneEcriture() {
+        // Given
+        c1.setStatut(StatutCommande.LIVREE);
+        given(commandeRepository.findAllById(List.of(1, 3))).willReturn(List.of(c1));
+        given(commandeLigneRepository.findByCommandeIdIn(List.of(1, 3))).willReturn(List.of());
+
+        // When
+        LivraisonLotDTO lot = livraisonService.livrerCommandes(List.of(1, 3));
+
+        // Then
+        assertThat(lot.getLivrees()).isZero();
+        assertThat(lot.getResultats().get(0).isSucces()).isTrue();
+        assertThat(lot.getResultats().get(1).getMessage()).isEqualTo("Commande introuvable");
+        then(jdbcTemplate).shouldHaveNoInteractions();
+    }
+}
@@ -4,16 +4,21 @@ import static org.junit.jupiter.api.Assertions.*;
 
 
 import com.tricol.dto.ProduitDTO;
+import com.tricol.event.StockModifieEvent;
 import com.tricol.mapper.ProduitMapper;
 import com.tricol.model.Produit;
 import com.tricol.repository.ProduitRepository;
+import com.tricol.stock.MoteurStock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+
+import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.List;
 
@@ -29,6 +34,12 @@ class ProduitServiceTest {
     @Mock
     private ProduitMapper produitMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MoteurStock moteurStock;
+
     @InjectMocks
     private ProduitService produitService;
 
@@ -40,15 +51,15 @@ class ProduitServiceTest {
         produit = Produit.builder()
                 .id(1)
                 .nom("Produit A")
-                .prixUnitaire(100)
+                .prixUnitaire(BigDecimal.valueOf(100))
                 .stockActuel(10)
-                .coutMoyenUnitaire(100)
+                .coutMoyenUnitaire(BigDecimal.valueOf(100))
                 .build();
 
         produitDTO = ProduitDTO.builder()
                 .id(1)
                 .nom("Produit A")
-                .prixUnitaire(100)
+                .prixUnitaire(BigDecimal.valueOf(100))
                 .stockActuel(10)
                 .build();
     }
@@ -113,7 +124,7 @@ class ProduitServiceTest {
 
         assertNotNull(result);
         assertEquals("Produit A", result.getNom());
-        assertEquals(100, produit.getCoutMoyenUnitaire()); // CUMP = prix
+        assertEquals(BigDecimal.valueOf(100), produit.getCoutMoyenUnitaire()); // CUMP = prix
     }
 
     // ------------------------------------------------------
@@ -125,14 +136,14 @@ class ProduitServiceTest {
         Produit existing = Produit.builder()
                 .id(1)
                 .nom("Produit A")
-                .prixUnitaire(100)
+                .prixUnitaire(BigDecimal.valueOf(100))
                 .stockActuel(10)
-                .coutMoyenUnitaire(100)
+                .coutMoyenUnitaire(BigDecimal.valueOf(100))
                 .build();
 
         ProduitDTO newDto = ProduitDTO.builder()
                 .nom("Produit A")
-                .prixUnitaire(200)
+                .prixUnitaire(BigDecimal.valueOf(200))
                 .stockActuel(5)
                 .build();
 
@@ -143,10 +154,10 @@ class ProduitServiceTest {
         ProduitDTO result = produitService.createProduit(newDto);
 
         assertNotNull(result);
-        assertEquals(200, existing.getPrixUnitaire());
+        assertEquals(BigDecimal.valueOf(200), existing.getPrixUnitaire());
         assertEquals(15, existing.getStockActuel());
         // CUMP attendu = (10*100 + 5*200) / 15 = 133.33
-        assertEquals(133.33, existing.getCoutMoyenUnitaire(), 0.01);
+        assertEquals(new BigDecimal("133.33"), existing.getCoutMoyenUnitaire());
     }
 
     // ------------------------------------------------------
@@ -155,10 +166,11 @@ class ProduitServiceTest {
     @Test
     void testUpdateProduit() {
 
+        produit.setSeuilAlerte(5);
         ProduitDTO modif = ProduitDTO.builder()
                 .nom("Produit B")
                 .description("Desc")
-                .prixUnitaire(150)
+                .prixUnitaire(BigDecimal.valueOf(150))
                 .categorie("Cat")
                 .stockActuel(20)
                 .build();
@@ -170,8 +182,29 @@ class ProduitServiceTest {
         ProduitDTO result = produitService.updateProduit(1, modif);
 
         assertEquals("Produit B", produit.getNom());
-        assertEquals(150, produit.getPrixUnitaire());
+        assertEquals(BigDecimal.valueOf(150), produit.getPrixUnitaire());
         assertEquals(20, produit.getStockActuel());
+        // seuil d'alerte absent de la requête : conservé
+        assertEquals(5, produit.getSeuilAlerte());
+    }
+
+    // ------------------------------------------------------
+    // TEST supprimerSeuilAlerte : retrait explicite, le produit sort des alertes
+    // ------------------------------------------------------
+    @Test
+    void testSupprimerSeuilAlerte() {
+
+        produit.setSeuilAlerte(50);
+
+        when(produitRepository.findById(1)).thenReturn(Optional.of(produit));
+        when(produitRepository.save(produit)).thenReturn(produit);
+        when(produitMapper.toDTO(produit)).thenReturn(produitDTO);
+
+        produitService.supprimerSeuilAlerte(1);
+
+        assertNull(produit.getSeuilAlerte());
+        verify(eventPublisher).publishEvent(argThat((Object e) ->
+                e instanceof StockModifieEvent event && event.getProduitId() == 1 && event.getSeuilAlerte() == null));
     }
 
     // ------------------------------------------------------
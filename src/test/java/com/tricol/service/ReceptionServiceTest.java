@@ -0,0 +1,107 @@
+package com.tricol.service;
+
+import com.tricol.dto.ProduitDTO;
+import com.tricol.dto.ReceptionLotDTO;
+import com.tricol.repository.DialecteSql;
+import com.tricol.repository.ProduitRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Pas de transaction de test : chaque appel de service valide la sienne, comme en production
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ReceptionServiceTest {
+
+    @Autowired
+    private ReceptionService receptionService;
+    @Autowired
+    private ProduitService produitService;
+    @Autowired
+    private ProduitRepository produitRepository;
+    @Autowired
+    private DialecteSql dialecteSql;
+
+    private static ProduitDTO ligne(String nom, String prix, int quantite) {
+        return ProduitDTO.builder().nom(nom).prixUnitaire(new BigDecimal(prix)).stockActuel(quantite).build();
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : le bordereau donne le même CUMP et le même stock que createProduit ligne à ligne
+    // ---------------------------------------------------------------------
+    @Test
+    void testReceptionner_MemeResultatQueCreateProduit() {
+        verifierMemeResultatQueCreateProduit("Unitaire ", "Lot ");
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : même comparaison par la fusion PostgreSQL (INSERT ... ON CONFLICT DO UPDATE), que H2 n'accepte pas ;
+    // lancé seulement contre une vraie base, par exemple :
+    //   mvn test -Dtest=ReceptionServiceTest -Dspring.datasource.url=jdbc:postgresql://localhost:5432/tricol_test \
+    //       -Dspring.datasource.driverClassName=org.postgresql.Driver -Dspring.datasource.username=postgres \
+    //       -Dspring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect
+    // ---------------------------------------------------------------------
+    @Test
+    @EnabledIfSystemProperty(named = "spring.datasource.url", matches = "jdbc:postgresql:.*")
+    void testReceptionner_FusionPostgres_MemeResultatQueCreateProduit() {
+        assertThat(dialecteSql.estPostgres()).isTrue();
+        String suffixe = Long.toString(System.nanoTime());
+        verifierMemeResultatQueCreateProduit("PG Unitaire " + suffixe + " ", "PG Lot " + suffixe + " ");
+    }
+
+    private void verifierMemeResultatQueCreateProduit(String unitaire, String lot) {
+        // Given : mêmes états initiaux (dont un stock nul) des deux côtés
+        for (String prefixe : List.of(unitaire, lot)) {
+            produitService.createProduit(ligne(prefixe + "Clavier", "100.00", 10));
+            produitService.createProduit(ligne(prefixe + "Ecran", "1500.00", 0));
+        }
+        // doublons de nom, arrondi au demi-centime, produit nouveau
+        List<String[]> bordereau = List.of(
+                new String[]{"Clavier", "130.00", "5"},
+                new String[]{"Souris", "49.99", "4"},
+                new String[]{"Clavier", "90.01", "3"},
+                new String[]{"Ecran", "1450.00", "2"},
+                new String[]{"Clavier", "100.00", "7"},
+                new String[]{"Souris", "50.00", "1"});
+
+        // When
+        bordereau.forEach(l -> produitService.createProduit(ligne(unitaire + l[0], l[1], Integer.parseInt(l[2]))));
+        ReceptionLotDTO rapport = receptionService.receptionner(bordereau.stream()
+                .map(l -> ligne(lot + l[0], l[1], Integer.parseInt(l[2])))
+                .toList());
+
+        // Then
+        assertThat(rapport.getLignes()).isEqualTo(6);
+        assertThat(rapport.getProduits()).isEqualTo(3);
+        assertThat(rapport.getPasses()).isEqualTo(3);
+        for (String nom : List.of("Clavier", "Souris", "Ecran")) {
+            var attendu = produitRepository.findByNom(unitaire + nom);
+            var obtenu = produitRepository.findByNom(lot + nom);
+            assertThat(obtenu.getStockActuel()).isEqualTo(attendu.getStockActuel());
+            assertThat(obtenu.getCoutMoyenUnitaire()).isEqualByComparingTo(attendu.getCoutMoyenUnitaire());
+            assertThat(obtenu.getPrixUnitaire()).isEqualByComparingTo(attendu.getPrixUnitaire());
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : une ligne invalide annule tout le bordereau
+    // ---------------------------------------------------------------------
+    @Test
+    void testReceptionner_LigneSansPrix_RienNEstApplique() {
+        ProduitDTO sansPrix = ProduitDTO.builder().nom("Invalide Cable").stockActuel(3).build();
+
+        assertThatThrownBy(() -> receptionService.receptionner(List.of(ligne("Invalide Hub", "20.00", 1), sansPrix)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Ligne 2");
+
+        assertThat(produitRepository.findByNom("Invalide Hub")).isNull();
+    }
+}
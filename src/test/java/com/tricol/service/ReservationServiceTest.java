@@ -0,0 +1,149 @@
+package com.tricol.service;
+
+import com.tricol.dto.CommandeDTO;
+import com.tricol.dto.DisponibiliteDTO;
+import com.tricol.dto.LivraisonLotDTO;
+import com.tricol.dto.ProduitDTO;
+import com.tricol.enums.StatutCommande;
+import com.tricol.model.CommandeLigne;
+import com.tricol.model.Fournisseur;
+import com.tricol.repository.CommandeLigneRepository;
+import com.tricol.repository.CommandeRepository;
+import com.tricol.repository.FournisseurRepository;
+import com.tricol.repository.ProduitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Pas de transaction de test : chaque appel de service valide la sienne, comme en production
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ReservationServiceTest {
+
+    @Autowired
+    private CommandeService commandeService;
+    @Autowired
+    private ProduitService produitService;
+    @Autowired
+    private LivraisonService livraisonService;
+    @Autowired
+    private FournisseurRepository fournisseurRepository;
+    @Autowired
+    private CommandeRepository commandeRepository;
+    @Autowired
+    private CommandeLigneRepository commandeLigneRepository;
+    @Autowired
+    private ProduitRepository produitRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int fournisseurId;
+    private int produitId;
+
+    @BeforeEach
+    void setUp() {
+        long suffixe = System.nanoTime();
+        fournisseurId = fournisseurRepository.save(Fournisseur.builder()
+                .societe("Réservations").ICE("ICE-RES-" + suffixe).build()).getId();
+        produitId = produitService.createProduit(ProduitDTO.builder().nom("Réservé " + suffixe)
+                .prixUnitaire(new BigDecimal("10.00")).stockActuel(10).build()).getId();
+    }
+
+    private CommandeDTO commande(int quantite) {
+        CommandeDTO commande = commandeService.createCommande(CommandeDTO.builder()
+                .dateCommande(LocalDateTime.now()).statut(StatutCommande.EN_ATTENTE).fournisseurId(fournisseurId).build());
+        commandeLigneRepository.save(CommandeLigne.builder()
+                .commande(commandeRepository.findById(commande.getId()).orElseThrow())
+                .produit(produitRepository.findById(produitId).orElseThrow())
+                .quantite(quantite)
+                .prixAchat(new BigDecimal("10.00"))
+                .build());
+        return commande;
+    }
+
+    private CommandeDTO passer(CommandeDTO commande, StatutCommande statut) {
+        commande.setStatut(statut);
+        return commandeService.updateCommande(commande.getId(), commande);
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : la validation réserve, la survente est refusée dès la validation, l'annulation libère
+    // ---------------------------------------------------------------------
+    @Test
+    void testValidationReserveEtAnnulationLibere() {
+        CommandeDTO a = commande(6);
+        CommandeDTO b = commande(6);
+
+        passer(a, StatutCommande.VALIDEE);
+        DisponibiliteDTO disponibilite = produitService.getDisponibilite(produitId);
+        assertThat(disponibilite.getStockActuel()).isEqualTo(10);
+        assertThat(disponibilite.getStockReserve()).isEqualTo(6);
+        assertThat(disponibilite.getDisponible()).isEqualTo(4);
+
+        assertThatThrownBy(() -> passer(b, StatutCommande.VALIDEE))
+                .hasMessageContaining("Stock insuffisant pour réserver");
+        assertThat(commandeService.getById(b.getId()).getStatut()).isEqualTo(StatutCommande.EN_ATTENTE);
+
+        passer(a, StatutCommande.ANNULEE);
+        assertThat(produitService.getDisponibilite(produitId).getDisponible()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations_stock WHERE id_commande = ?",
+                Integer.class, a.getId())).isZero();
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : la livraison consomme la réservation (stock et réservé décrémentés ensemble)
+    // ---------------------------------------------------------------------
+    @Test
+    void testLivraisonConsommeLaReservation() {
+        CommandeDTO a = passer(commande(6), StatutCommande.VALIDEE);
+
+        passer(a, StatutCommande.LIVREE);
+
+        DisponibiliteDTO disponibilite = produitService.getDisponibilite(produitId);
+        assertThat(disponibilite.getStockActuel()).isEqualTo(4);
+        assertThat(disponibilite.getStockReserve()).isZero();
+        assertThat(disponibilite.getDisponible()).isEqualTo(4);
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : en lot, une commande non réservée ne peut pas prendre le stock réservé par une autre
+    // ---------------------------------------------------------------------
+    @Test
+    void testLivraisonEnLotRespecteLesReservations() {
+        CommandeDTO reservee = passer(commande(6), StatutCommande.VALIDEE);
+        CommandeDTO libre = commande(6);
+
+        LivraisonLotDTO lot = livraisonService.livrerCommandes(List.of(libre.getId(), reservee.getId()));
+
+        assertThat(lot.getLivrees()).isEqualTo(1);
+        assertThat(lot.getResultats().get(0).getMessage()).contains("Stock insuffisant");
+        assertThat(lot.getResultats().get(1).isSucces()).isTrue();
+        DisponibiliteDTO disponibilite = produitService.getDisponibilite(produitId);
+        assertThat(disponibilite.getStockActuel()).isEqualTo(4);
+        assertThat(disponibilite.getStockReserve()).isZero();
+    }
+
+    // ---------------------------------------------------------------------
+    // TEST : le moteur de stock ignore stock_reserve → refusé au démarrage avec les réservations
+    // ---------------------------------------------------------------------
+    @Test
+    void testMoteurDeStockEtReservationsIncompatibles() {
+        assertThatThrownBy(() -> new ReservationService(jdbcTemplate, evenement -> { }, true, true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("tricol.reservation.actif");
+
+        // réservations désactivées : la validation ne réserve plus rien
+        new ReservationService(jdbcTemplate, evenement -> { }, false, true).reserver(commande(6).getId());
+        assertThat(produitService.getDisponibilite(produitId).getStockReserve()).isZero();
+    }
+}
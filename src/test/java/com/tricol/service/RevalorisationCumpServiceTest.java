@@ -0,0 +1,141 @@
+package com.tricol.service;
+
+import com.tricol.dto.ProduitDTO;
+import com.tricol.dto.RevalorisationRapportDTO;
+import com.tricol.repository.ProduitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pas de transaction de test : la revalorisation lit et écrit dans ses propres transactions
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class RevalorisationCumpServiceTest {
+
+    @Autowired
+    private ProduitService produitService;
+    @Autowired
+    private ProduitRepository produitRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // ---------------------------------------------------------------------
+    // TEST : le passage partitionné redonne le CUMP de createProduit, lignes annulées ignorées
+    // ---------------------------------------------------------------------
+    @Test
+    void testRevaloriser_MemeCumpQueCreateProduit_LignesAnnuleesIgnorees() throws Exception {
+        // Given : 6 produits aux ids consécutifs ; avec 1000 partitions demandées, chaque id tombe
+        // dans sa propre tranche, donc les produits sont répartis de part et d'autre de plusieurs bornes
+        String[][] achats = {
+                {"120.00", "10"}, {"99.99", "3"}, {"130.55", "7"}, {"80.01", "1"}};
+        Map<String, Integer> produits = new LinkedHashMap<>();
+        for (int p = 0; p < 6; p++) {
+            String nom = "Revalorisation " + p;
+            produitService.createProduit(ligne(nom, achats[0][0], Integer.parseInt(achats[0][1]) + p));
+            produits.put(nom, produitRepository.findByNom(nom).getId());
+        }
+        long fournisseur = inserer("INSERT INTO fournisseur (societe, ice) VALUES (?, ?)",
+                "Revalorisation SARL", "REVAL-" + System.nanoTime());
+
+        LocalDateTime date = LocalDateTime.of(2020, 1, 1, 8, 0);
+        for (int tour = 0; tour < achats.length; tour++) {
+            long commande = commande(date.plusDays(tour), "LIVREE", fournisseur);
+            // commande annulée le même jour à des prix aberrants : ne doit peser sur aucun CUMP
+            long annulee = commande(date.plusDays(tour).plusHours(1), "ANNULEE", fournisseur);
+            int p = 0;
+            for (Map.Entry<String, Integer> produit : produits.entrySet()) {
+                int quantite = Integer.parseInt(achats[tour][1]) + (tour == 0 ? p : 0);
+                if (tour > 0) {
+                    produitService.createProduit(ligne(produit.getKey(), achats[tour][0], quantite));
+                }
+                ligneCommande(produit.getValue(), commande, quantite, achats[tour][0]);
+                ligneCommande(produit.getValue(), annulee, 500, "9999.99");
+                p++;
+            }
+        }
+        Map<Integer, BigDecimal> attendus = new LinkedHashMap<>();
+        for (Integer id : produits.values()) {
+            attendus.put(id, cump(id));
+        }
+        jdbcTemplate.update("UPDATE produit SET cout_moyen_unitaire = 0 WHERE nom LIKE 'Revalorisation %'");
+
+        // When
+        RevalorisationCumpService service = new RevalorisationCumpService(
+                jdbcTemplate, eventPublisher, transactionManager, 4, 1000);
+        try {
+            service.lancer();
+            RevalorisationRapportDTO rapport = attendreFin(service);
+
+            // Then
+            assertThat(rapport.getErreur()).isNull();
+            assertThat(rapport.getPartitions()).isGreaterThan(1);
+            assertThat(rapport.getPartitionsTerminees()).isEqualTo(rapport.getPartitions());
+            for (Map.Entry<Integer, BigDecimal> attendu : attendus.entrySet()) {
+                assertThat(cump(attendu.getKey())).isEqualByComparingTo(attendu.getValue());
+            }
+        } finally {
+            service.arreter();
+        }
+    }
+
+    private static ProduitDTO ligne(String nom, String prix, int quantite) {
+        return ProduitDTO.builder().nom(nom).prixUnitaire(new BigDecimal(prix)).stockActuel(quantite).build();
+    }
+
+    private BigDecimal cump(int produitId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT cout_moyen_unitaire FROM produit WHERE id = ?", BigDecimal.class, produitId);
+    }
+
+    private long commande(LocalDateTime date, String statut, long fournisseur) {
+        return inserer("INSERT INTO commandes (date_commande, statut, id_fournisseur) VALUES (?, ?, ?)",
+                Timestamp.valueOf(date), statut, fournisseur);
+    }
+
+    private void ligneCommande(int produitId, long commande, int quantite, String prix) {
+        jdbcTemplate.update("INSERT INTO commandes_lignes (id_produit, id_commande, quantite, prix_achat) VALUES (?, ?, ?, ?)",
+                produitId, commande, quantite, new BigDecimal(prix));
+    }
+
+    private long inserer(String sql, Object... valeurs) {
+        KeyHolder cle = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, new String[]{"id"});
+            for (int i = 0; i < valeurs.length; i++) {
+                ps.setObject(i + 1, valeurs[i]);
+            }
+            return ps;
+        }, cle);
+        return cle.getKey().longValue();
+    }
+
+    private static RevalorisationRapportDTO attendreFin(RevalorisationCumpService service) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            RevalorisationRapportDTO etat = service.etat();
+            if (!etat.isEnCours()) {
+                return etat;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("revalorisation toujours en cours : " + service.etat());
+    }
+}
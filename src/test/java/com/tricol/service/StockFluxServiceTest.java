@@ -0,0 +1,132 @@
+package com.tricol.service;
+
+import com.tricol.event.StockModifieEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockFluxServiceTest {
+
+    private StockFluxService stockFluxService;
+
+    @AfterEach
+    void tearDown() {
+        stockFluxService.arreter();
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : rafale de mises à jour d'un même produit
+    //  → tous les abonnés reçoivent la dernière valeur, les intermédiaires sont fusionnées
+    // ----------------------------------------------------------------------
+    @Test
+    void testRafale_RecoiventDerniereValeur() throws Exception {
+        List<EmitterCompteur> emitters = abonner(50);
+
+        rafale(emitters, 1000);
+
+        assertThat(emitters).allMatch(e -> e.dernierStock == 1);
+        assertThat(emitters).allMatch(e -> e.envois.get() <= 1000);
+    }
+
+    // ----------------------------------------------------------------------
+    //  MESURE : 5000 abonnés x 1000 mises à jour (banc de charge : mvn -Pcharge test)
+    // ----------------------------------------------------------------------
+    @Test
+    @Tag("charge")
+    void mesurerRafale_5000Abonnes() throws Exception {
+        List<EmitterCompteur> emitters = abonner(5000);
+
+        long debut = System.nanoTime();
+        rafale(emitters, 1000);
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+
+        long envois = emitters.stream().mapToLong(e -> e.envois.get()).sum();
+        System.out.println("abonnes;mises_a_jour;envois;ms");
+        System.out.printf(Locale.ROOT, "%d;%d;%d;%d%n", emitters.size(), 1000, envois, dureeMs);
+        assertThat(emitters).allMatch(e -> e.dernierStock == 1);
+    }
+
+    // ----------------------------------------------------------------------
+    //  TEST : abonné bloqué dont la file déborde → déconnecté
+    // ----------------------------------------------------------------------
+    @Test
+    void testAbonneLent_FilePleine_EstDeconnecte() throws Exception {
+        stockFluxService = new StockFluxService(1, 2, 0);
+        CountDownLatch bloque = new CountDownLatch(1);
+        stockFluxService.abonner(new EmitterCompteur(bloque));
+
+        for (int produitId = 1; produitId <= 4; produitId++) {
+            stockFluxService.onStockModifie(new StockModifieEvent(produitId, "Produit " + produitId, 10, null));
+        }
+        attendre(() -> stockFluxService.nombreAbonnes() == 0);
+        bloque.countDown();
+
+        assertThat(stockFluxService.nombreAbonnes()).isZero();
+    }
+
+    private List<EmitterCompteur> abonner(int nombre) {
+        stockFluxService = new StockFluxService(8, 1000, 0);
+        List<EmitterCompteur> emitters = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            EmitterCompteur emitter = new EmitterCompteur(null);
+            stockFluxService.abonner(emitter);
+            emitters.add(emitter);
+        }
+        return emitters;
+    }
+
+    // stocks décroissants de "mises à jour" jusqu'à 1, puis attente de la dernière valeur chez tous les abonnés
+    private void rafale(List<EmitterCompteur> emitters, int misesAJour) throws InterruptedException {
+        for (int stock = misesAJour; stock >= 1; stock--) {
+            stockFluxService.onStockModifie(new StockModifieEvent(1, "Clavier", stock, null));
+        }
+        attendre(() -> emitters.stream().allMatch(e -> e.dernierStock == 1));
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class EmitterCompteur extends SseEmitter {
+        private final CountDownLatch bloque;
+        private final AtomicInteger envois = new AtomicInteger();
+        private volatile int dernierStock = -1;
+
+        EmitterCompteur(CountDownLatch bloque) {
+            this.bloque = bloque;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (bloque != null) {
+                try {
+                    bloque.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            envois.incrementAndGet();
+            for (ResponseBodyEmitter.DataWithMediaType d : builder.build()) {
+                if (d.getData() instanceof List<?> lot) {
+                    for (Object o : lot) {
+                        dernierStock = ((StockModifieEvent) o).getStockActuel();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.tricol.stock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Base H2 autonome (table produit réduite aux colonnes utiles) et journal dans un dossier temporaire ;
+// un "arrêt brutal" est simulé en abandonnant le moteur sans appeler arreter().
+class MoteurStockTest {
+
+    private static final AtomicInteger BASES = new AtomicInteger();
+
+    @TempDir
+    Path dossier;
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:moteur-stock-" + BASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate.execute("CREATE TABLE produit (id INT PRIMARY KEY, stock_actuel INT, version BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE stock_journal (id INT PRIMARY KEY, segment BIGINT NOT NULL, noeud VARCHAR(255), bail TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE stock_retraits (id BIGINT AUTO_INCREMENT PRIMARY KEY, id_produit INT NOT NULL, quantite INT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO produit VALUES (1, 10, 0), (2, 5, 0)");
+    }
+
+    private MoteurStock demarrer() {
+        return demarrer("noeud-a");
+    }
+
+    private MoteurStock demarrer(String noeud) {
+        MoteurStock moteur = new MoteurStock(jdbcTemplate, transactionManager, evenement -> { },
+                true, dossier.toString(), 16, true, noeud, 30_000);
+        moteur.demarrer();
+        return moteur;
+    }
+
+    private int retraitsEnAttente() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_retraits", Integer.class);
+    }
+
+    private int stockEnBase(int id) {
+        return jdbcTemplate.queryForObject("SELECT stock_actuel FROM produit WHERE id = ?", Integer.class, id);
+    }
+
+    @Test
+    void testRetraitToutOuRien() {
+        MoteurStock moteur = demarrer();
+
+        OptionalInt manque = moteur.retirer(Map.of(1, 4, 2, 6));
+
+        assertEquals(OptionalInt.of(2), manque);
+        assertEquals(10, moteur.stock(1));
+        assertEquals(5, moteur.stock(2));
+
+        assertTrue(moteur.retirer(Map.of(1, 4, 2, 5)).isEmpty());
+        assertEquals(6, moteur.stock(1));
+        assertEquals(0, moteur.stock(2));
+        moteur.arreter();
+    }
+
+    @Test
+    void testVidageReporteEnBaseEtAvanceLeRepere() {
+        MoteurStock moteur = demarrer();
+        moteur.retirer(Map.of(1, 3));
+        moteur.ajouter(2, 7);
+        assertEquals(10, stockEnBase(1));
+
+        moteur.vider();
+
+        assertEquals(7, stockEnBase(1));
+        assertEquals(12, stockEnBase(2));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM produit WHERE id = 1", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT segment FROM stock_journal WHERE id = 1", Long.class));
+        assertEquals(7, moteur.stock(1));
+        moteur.arreter();
+    }
+
+    @Test
+    void testRepriseApresArretBrutal() {
+        MoteurStock moteur = demarrer();
+        moteur.retirer(Map.of(1, 2));
+        moteur.vider();
+        moteur.retirer(Map.of(1, 3, 2, 1));
+        moteur.ajouter(2, 4);
+        // arrêt brutal : ni vidage ni fermeture
+
+        MoteurStock reprise = demarrer();
+
+        assertEquals(5, stockEnBase(1));
+        assertEquals(8, stockEnBase(2));
+        assertEquals(5, reprise.stock(1));
+        assertEquals(8, reprise.stock(2));
+        assertEquals(1, JournalStock.segments(dossier).size());
+        reprise.arreter();
+    }
+
+    @Test
+    void testSegmentDejaReporteNestPasRejoue() {
+        MoteurStock moteur = demarrer();
+        moteur.retirer(Map.of(1, 2));
+        moteur.arreter();
+        assertEquals(8, stockEnBase(1));
+
+        // arrêt entre la validation du report et la suppression du segment
+        JournalStock journal = new JournalStock(dossier, 1);
+        journal.synchroniser(journal.ajouter(1, -2));
+        journal.close();
+
+        demarrer().arreter();
+
+        assertEquals(8, stockEnBase(1));
+    }
+
+    @Test
+    void testEnregistrementTronqueIgnore() throws Exception {
+        MoteurStock moteur = demarrer();
+        moteur.retirer(Map.of(1, 1));
+        long segment = JournalStock.segments(dossier).get(0);
+        // écriture interrompue : 5 octets d'un enregistrement de 12
+        Files.write(dossier.resolve(String.format("stock-%016d.journal", segment)),
+                new byte[]{0, 0, 0, 1, (byte) 0xFF}, StandardOpenOption.APPEND);
+
+        demarrer().arreter();
+
+        assertEquals(9, stockEnBase(1));
+    }
+
+    @Test
+    void testRetraitCompenseSiLaTransactionEstAnnulee() {
+        MoteurStock moteur = demarrer();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(moteur.retirerDansTransaction(Map.of(1, 4)).isEmpty());
+            assertEquals(6, moteur.stock(1));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(10, moteur.stock(1));
+        moteur.vider();
+        assertEquals(10, stockEnBase(1));
+        moteur.arreter();
+    }
+
+    @Test
+    void testRetraitEnTransactionEnregistreAvecLaTransaction() {
+        MoteurStock moteur = demarrer();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(moteur.retirerDansTransaction(Map.of(1, 4, 2, 1)).isEmpty());
+            assertEquals(6, moteur.stock(1));
+            // rien dans le journal : le retrait n'existe qu'avec la transaction
+            long segment = JournalStock.segments(dossier).get(0);
+            assertTrue(JournalStock.lire(dossier, segment).isEmpty());
+        });
+        assertEquals(2, retraitsEnAttente());
+
+        // le recalage sur la base ne rend pas la quantité validée mais pas encore reportée
+        moteur.resynchroniser(List.of(1, 2));
+        assertEquals(6, moteur.stock(1));
+        assertEquals(4, moteur.stock(2));
+        moteur.vider();
+        assertEquals(6, stockEnBase(1));
+        assertEquals(4, stockEnBase(2));
+        assertEquals(0, retraitsEnAttente());
+        assertEquals(6, moteur.stock(1));
+        moteur.arreter();
+    }
+
+    @Test
+    void testRetraitValideRepriseApresArretBrutalAvantVidage() {
+        MoteurStock moteur = demarrer();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                assertTrue(moteur.retirerDansTransaction(Map.of(1, 4)).isEmpty()));
+        // arrêt brutal juste après le commit : ni vidage ni fermeture
+
+        MoteurStock reprise = demarrer();
+
+        assertEquals(6, stockEnBase(1));
+        assertEquals(6, reprise.stock(1));
+        assertEquals(0, retraitsEnAttente());
+        reprise.arreter();
+    }
+
+    @Test
+    void testSecondeInstanceRefuseeTantQueLeBailCourt() {
+        MoteurStock premier = demarrer("noeud-a");
+
+        IllegalStateException refus = assertThrows(IllegalStateException.class, () -> demarrer("noeud-b"));
+        assertTrue(refus.getMessage().contains("noeud-a"));
+
+        premier.arreter();
+        MoteurStock second = demarrer("noeud-b");
+        assertEquals(10, second.stock(1));
+        second.arreter();
+    }
+}
@@ -0,0 +1,70 @@
+package com.tricol.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MontantsTest {
+
+    // ------------------------------------------------------
+    // TEST conversions BigDecimal <-> centimes
+    // ------------------------------------------------------
+    @Test
+    void testConversions() {
+        assertEquals(13333, Montants.versCentimes(new BigDecimal("133.33")));
+        assertEquals(1001, Montants.versCentimes(new BigDecimal("10.005")));
+        assertEquals(0, Montants.versCentimes(null));
+        assertEquals(new BigDecimal("133.33"), Montants.versDecimal(13333));
+    }
+
+    // ------------------------------------------------------
+    // TEST CUMP : (10*100 + 5*200) / 15 = 133.33
+    // ------------------------------------------------------
+    @Test
+    void testCump() {
+        assertEquals(13333, Montants.cump(10000, 10, 20000, 5));
+        // (1*0.01 + 1*0.02) / 2 = 0.015 → arrondi HALF_UP à 0.02
+        assertEquals(2, Montants.cump(1, 1, 2, 1));
+        // stock initial nul : CUMP = nouveau prix
+        assertEquals(20000, Montants.cump(10000, 0, 20000, 5));
+    }
+
+    // ------------------------------------------------------
+    // TEST CUMP : dépassement du long → repli BigDecimal
+    // ------------------------------------------------------
+    @Test
+    void testCump_Depassement() {
+        long prix = 9_999_999_999L;
+        assertEquals(prix, Montants.cump(prix, Integer.MAX_VALUE, prix, Integer.MAX_VALUE));
+    }
+
+    // ------------------------------------------------------
+    // TEST : la somme en centimes ne dérive pas (contrairement au double)
+    // ------------------------------------------------------
+    @Test
+    void testTotal_SansDerive() {
+        Montants.Total total = new Montants.Total();
+        for (int i = 0; i < 1000; i++) {
+            total.ajouter(Montants.versCentimes(new BigDecimal("0.10")), 3);
+        }
+        assertEquals(new BigDecimal("300.00"), total.versDecimal());
+    }
+
+    // ------------------------------------------------------
+    // TEST total : dépassement du long → repli BigDecimal, sans perte
+    // ------------------------------------------------------
+    @Test
+    void testTotal_Depassement() {
+        // prix_achat maximal (DECIMAL(10,2)) x quantité maximale, deux fois
+        long prix = Montants.versCentimes(new BigDecimal("99999999.99"));
+        Montants.Total total = new Montants.Total()
+                .ajouter(prix, Integer.MAX_VALUE)
+                .ajouter(prix, Integer.MAX_VALUE)
+                .ajouter(1, 1);
+        BigDecimal attendu = new BigDecimal("99999999.99").multiply(BigDecimal.valueOf(Integer.MAX_VALUE))
+                .multiply(BigDecimal.valueOf(2)).add(new BigDecimal("0.01"));
+        assertEquals(attendu, total.versDecimal());
+    }
+}